@@ -0,0 +1,45 @@
+package org.example.userservice.config;
+
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ConsumerConfig {
+
+    @Value("${rabbitmq.review.queue.name:user-review-queue}")
+    private String reviewQueueName;
+
+    @Value("${rabbitmq.review.batch-size:500}")
+    private int reviewBatchSize;
+
+    @Value("${rabbitmq.review.batch-window-ms:1000}")
+    private long reviewBatchWindowMs;
+
+    @Bean
+    public Queue userReviewQueue() {
+        return new Queue(reviewQueueName, true);
+    }
+
+    /**
+     * Delivers review events as lists: a batch is handed over once it reaches
+     * the batch size or no further message arrives within the window.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory reviewBatchContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(reviewBatchSize);
+        factory.setPrefetchCount(reviewBatchSize);
+        factory.setReceiveTimeout(reviewBatchWindowMs);
+        return factory;
+    }
+}
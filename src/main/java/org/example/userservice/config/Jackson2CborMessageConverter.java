@@ -0,0 +1,68 @@
+package org.example.userservice.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractMessageConverter;
+import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.SmartMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Jackson converter for the binary CBOR encoding. The message model and the
+ * type id header are the same as for JSON, so any payload can be sent in
+ * either format; only the bytes on the wire are smaller and cheaper to write.
+ */
+public class Jackson2CborMessageConverter extends AbstractMessageConverter implements SmartMessageConverter {
+    public static final String CONTENT_TYPE = "application/cbor";
+
+    private final ObjectMapper objectMapper = CBORMapper.builder().findAndAddModules().build();
+    private final DefaultJackson2JavaTypeMapper typeMapper = new DefaultJackson2JavaTypeMapper();
+
+    public Jackson2CborMessageConverter() {
+        this("*");
+    }
+
+    public Jackson2CborMessageConverter(String... trustedPackages) {
+        typeMapper.setTrustedPackages(trustedPackages);
+    }
+
+    @Override
+    protected Message createMessage(Object object, MessageProperties messageProperties) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(object);
+            messageProperties.setContentType(CONTENT_TYPE);
+            messageProperties.setContentLength(body.length);
+            typeMapper.fromJavaType(objectMapper.constructType(object.getClass()), messageProperties);
+            return new Message(body, messageProperties);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to convert message to CBOR", e);
+        }
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        return fromMessage(message, null);
+    }
+
+    /**
+     * Reads the body as the listener's parameter type when one is given and
+     * as the type from the type id header otherwise.
+     */
+    @Override
+    public Object fromMessage(Message message, Object conversionHint) {
+        try {
+            JavaType targetType = conversionHint instanceof Type type
+                    ? objectMapper.constructType(type)
+                    : typeMapper.toJavaType(message.getMessageProperties());
+            return objectMapper.readValue(message.getBody(), targetType);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to convert CBOR message", e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.userservice.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import lombok.extern.slf4j.Slf4j;
+import org.example.userservice.dto.responses.UserMeResponseDTO;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+
+@Slf4j
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Replaces the reflective getter calls of bean serializers with
+     * generated lambdas. Spring Boot registers every {@link Module} bean
+     * with the application's {@link ObjectMapper}.
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    /**
+     * Builds and caches the serializers of every response DTO, and of lists
+     * of them, before the first request so that no caller pays for
+     * introspection and code generation.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prewarmResponseSerializers(ApplicationReadyEvent event) {
+        ObjectMapper objectMapper = event.getApplicationContext().getBean(ObjectMapper.class);
+        TypeFactory typeFactory = objectMapper.getTypeFactory();
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter((reader, factory) -> true);
+        long start = System.nanoTime();
+        int warmed = 0;
+        for (BeanDefinition candidate : scanner.findCandidateComponents(UserMeResponseDTO.class.getPackageName())) {
+            try {
+                Class<?> type = ClassUtils.forName(candidate.getBeanClassName(), getClass().getClassLoader());
+                for (JavaType javaType : List.of(typeFactory.constructType(type),
+                        typeFactory.constructCollectionType(List.class, type))) {
+                    objectMapper.getSerializerProviderInstance().findTypedValueSerializer(javaType, true, null);
+                }
+                warmed++;
+            } catch (Exception e) {
+                log.warn("Failed to prepare the serializer of {}: {}", candidate.getBeanClassName(), e.getMessage());
+            }
+        }
+        log.info("Prepared serializers for {} response types in {} ms", warmed, (System.nanoTime() - start) / 1_000_000);
+    }
+}
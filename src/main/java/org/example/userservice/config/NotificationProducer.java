@@ -2,15 +2,14 @@ package org.example.userservice.config;
 
 import lombok.extern.slf4j.Slf4j;
 import org.example.userservice.dto.requests.NotificationRequestDTO;
-import org.springframework.amqp.AmqpException;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.example.userservice.service.OutboxService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
 @Slf4j
 public class NotificationProducer {
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxService outboxService;
 
     @Value("${rabbitmq.exchange.name}")
     private String exchangeName;
@@ -18,20 +17,13 @@ public class NotificationProducer {
     @Value("${rabbitmq.routing.key}")
     private String routingKey;
 
-    public NotificationProducer(RabbitTemplate rabbitTemplate) {
-        this.rabbitTemplate = rabbitTemplate;
+    public NotificationProducer(OutboxService outboxService) {
+        this.outboxService = outboxService;
     }
 
     public void sendNotification(NotificationRequestDTO message)
     {
-        try {
-            rabbitTemplate.convertAndSend(exchangeName, routingKey, message);
-            log.info("Notification sent successfully via RabbitMQ for channel: {}", message.getChannel());
-        } catch (AmqpException e) {
-            log.error("Failed to send notification via RabbitMQ. RabbitMQ may not be available. Error: {}", e.getMessage());
-            log.warn("Notification request will be skipped. Please ensure RabbitMQ is running for email notifications to work.");
-        } catch (Exception e) {
-            log.error("Unexpected error while sending notification via RabbitMQ: {}", e.getMessage(), e);
-        }
+        outboxService.enqueue(message.getUserId(), exchangeName, routingKey, message);
+        log.info("Notification queued in outbox for channel: {}", message.getChannel());
     }
 }
\ No newline at end of file
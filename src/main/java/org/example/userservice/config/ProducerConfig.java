@@ -1,7 +1,9 @@
 package org.example.userservice.config;
 
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.context.annotation.Bean;
@@ -10,18 +12,28 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class ProducerConfig {
 
+    /**
+     * Picks the converter from the message content type: inbound messages are
+     * read as JSON or CBOR depending on their header, outbound messages use
+     * the format requested in their properties and fall back to JSON.
+     */
     @Bean
-    public MessageConverter jsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public MessageConverter messageConverter() {
+        Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter();
+        ContentTypeDelegatingMessageConverter converter = new ContentTypeDelegatingMessageConverter(json);
+        converter.addDelegate(MessageProperties.CONTENT_TYPE_JSON, json);
+        converter.addDelegate(Jackson2CborMessageConverter.CONTENT_TYPE, new Jackson2CborMessageConverter());
+        return converter;
     }
 
     @Bean
     public RabbitTemplate rabbitTemplate(
             final ConnectionFactory connectionFactory,
-            final MessageConverter jsonMessageConverter) {
+            final MessageConverter messageConverter) {
 
         final RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
-        rabbitTemplate.setMessageConverter(jsonMessageConverter);
+        rabbitTemplate.setMessageConverter(messageConverter);
+        rabbitTemplate.setMandatory(true);
         return rabbitTemplate;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,191 @@
+package org.example.userservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous publisher in front of {@link RabbitTemplate}. Messages are
+ * buffered in bounded queues and sent in batches by worker threads, each of
+ * which publishes a batch on one pooled channel and completes the caller's
+ * future from the correlated publisher confirm. Messages with the same
+ * ordering key always go through the same worker, so their order is kept.
+ */
+@Slf4j
+@Component
+public class RabbitBatchPublisher {
+    private final RabbitTemplate rabbitTemplate;
+    private final MeterRegistry meterRegistry;
+    private final List<BlockingQueue<PendingPublish>> buffers = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    @Value("${app.messaging.publisher.workers:2}")
+    private int workerCount;
+
+    @Value("${app.messaging.publisher.buffer-capacity:10000}")
+    private int bufferCapacity;
+
+    @Value("${app.messaging.publisher.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.messaging.publisher.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    private Timer confirmLatency;
+    private Counter nacks;
+    private Counter returns;
+    private Counter rejected;
+
+    public RabbitBatchPublisher(RabbitTemplate rabbitTemplate, MeterRegistry meterRegistry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        confirmLatency = Timer.builder("rabbit.publisher.confirm.latency")
+                .description("Time from publishing a message to receiving its publisher confirm")
+                .register(meterRegistry);
+        nacks = Counter.builder("rabbit.publisher.nacks").register(meterRegistry);
+        returns = Counter.builder("rabbit.publisher.returns").register(meterRegistry);
+        rejected = Counter.builder("rabbit.publisher.rejected")
+                .description("Messages refused because the publish buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("rabbit.publisher.buffer.depth", buffers, RabbitBatchPublisher::depth)
+                .register(meterRegistry);
+
+        running = true;
+        int capacityPerWorker = Math.max(1, bufferCapacity / workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            BlockingQueue<PendingPublish> buffer = new ArrayBlockingQueue<>(capacityPerWorker);
+            buffers.add(buffer);
+            Thread worker = new Thread(() -> runWorker(buffer), "rabbit-publisher-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        for (BlockingQueue<PendingPublish> buffer : buffers) {
+            List<PendingPublish> leftovers = new ArrayList<>();
+            buffer.drainTo(leftovers);
+            leftovers.forEach(p -> p.result().completeExceptionally(new AmqpException("Publisher is shutting down")));
+        }
+    }
+
+    /**
+     * Queues a message for publishing. The returned future completes once the
+     * broker confirms the message, and fails on a nack, a return, a confirm
+     * timeout or when the buffer is full.
+     */
+    public CompletableFuture<Void> publish(String orderingKey, String exchange, String routingKey, Message message) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        PendingPublish pending = new PendingPublish(exchange, routingKey, message, result);
+        if (!running || !bufferFor(orderingKey).offer(pending)) {
+            rejected.increment();
+            result.completeExceptionally(new AmqpException("Publish buffer is full"));
+        }
+        return result;
+    }
+
+    private BlockingQueue<PendingPublish> bufferFor(String orderingKey) {
+        int hash = orderingKey != null ? orderingKey.hashCode() : 0;
+        return buffers.get(Math.floorMod(hash, buffers.size()));
+    }
+
+    private void runWorker(BlockingQueue<PendingPublish> buffer) {
+        List<PendingPublish> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                PendingPublish first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                publishBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Unexpected error in RabbitMQ publisher worker: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void publishBatch(List<PendingPublish> batch) {
+        int[] sent = {0};
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (PendingPublish pending : batch) {
+                    CorrelationData correlation = new CorrelationData();
+                    long startNanos = System.nanoTime();
+                    operations.send(pending.exchange(), pending.routingKey(), pending.message(), correlation);
+                    sent[0]++;
+                    correlation.getFuture()
+                            .orTimeout(confirmTimeoutMs, TimeUnit.MILLISECONDS)
+                            .whenComplete((confirm, error) -> complete(pending, correlation, confirm, error, startNanos));
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Failed to publish batch to RabbitMQ: {}", e.getMessage());
+            for (int i = sent[0]; i < batch.size(); i++) {
+                batch.get(i).result().completeExceptionally(e);
+            }
+        }
+    }
+
+    private void complete(PendingPublish pending, CorrelationData correlation,
+                          CorrelationData.Confirm confirm, Throwable error, long startNanos) {
+        if (error != null) {
+            pending.result().completeExceptionally(error);
+            return;
+        }
+        confirmLatency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        if (!confirm.isAck()) {
+            nacks.increment();
+            pending.result().completeExceptionally(new AmqpException("Nacked by broker: " + confirm.getReason()));
+        } else if (correlation.getReturned() != null) {
+            returns.increment();
+            pending.result().completeExceptionally(new AmqpException(
+                    "Returned by broker: " + correlation.getReturned().getReplyText()));
+        } else {
+            pending.result().complete(null);
+        }
+    }
+
+    private static double depth(List<BlockingQueue<PendingPublish>> buffers) {
+        return buffers.stream().mapToInt(BlockingQueue::size).sum();
+    }
+
+    private record PendingPublish(String exchange, String routingKey, Message message,
+                                  CompletableFuture<Void> result) {
+    }
+}
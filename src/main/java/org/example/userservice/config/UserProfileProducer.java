@@ -1,13 +1,13 @@
 package org.example.userservice.config;
 
 import org.example.userservice.dto.requests.UserProfileUpdateRequestDTO;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.example.userservice.service.OutboxService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
 public class UserProfileProducer {
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxService outboxService;
 
     @Value("${rabbitmq.user.exchange.name:user-exchange}")
     private String exchangeName;
@@ -15,12 +15,16 @@ public class UserProfileProducer {
     @Value("${rabbitmq.user.routing.key:user.routing.key}")
     private String routingKey;
 
-    public UserProfileProducer(RabbitTemplate rabbitTemplate) {
-        this.rabbitTemplate = rabbitTemplate;
+    @Value("${app.outbox.profile-coalesce-window-ms:2000}")
+    private long coalesceWindowMs;
+
+    public UserProfileProducer(OutboxService outboxService) {
+        this.outboxService = outboxService;
     }
 
     public void sendUserProfileUpdate(UserProfileUpdateRequestDTO message) {
-        rabbitTemplate.convertAndSend(exchangeName, routingKey, message);
+        outboxService.enqueueCoalesced(message.getUserId(), "user-profile:" + message.getUserId(),
+                exchangeName, routingKey, message, coalesceWindowMs);
     }
 }
 
@@ -0,0 +1,24 @@
+package org.example.userservice.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.userservice.dto.requests.UserReviewEventDTO;
+import org.example.userservice.service.UserReviewService;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class UserReviewConsumer {
+    private final UserReviewService userReviewService;
+
+    @RabbitListener(queues = "${rabbitmq.review.queue.name:user-review-queue}",
+            containerFactory = "reviewBatchContainerFactory")
+    public void consume(List<UserReviewEventDTO> events) {
+        log.debug("Received {} review events", events.size());
+        userReviewService.applyBatch(events);
+    }
+}
@@ -0,0 +1,226 @@
+package org.example.userservice.controller;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.userservice.service.LocalFileLayout;
+import org.example.userservice.service.ProfileImageCache;
+import org.example.userservice.service.ProfileImageCache.CachedImage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Serves locally stored profile pictures. Large files are handed to
+ * Tomcat's sendfile support so the bytes go from the page cache to the
+ * socket without passing through the JVM; otherwise they are written with
+ * {@link FileChannel#transferTo}. Responses carry a strong ETag derived
+ * from the file size and modification time, and honour
+ * {@code If-None-Match} and single {@code Range} requests. Small hot
+ * files are answered from {@link ProfileImageCache} without touching the
+ * disk.
+ */
+@RestController
+public class ProfilePictureController {
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+    private static final Pattern FILE_NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]*");
+    private static final Pattern BYTE_RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "jpg", "image/jpeg",
+            "jpeg", "image/jpeg",
+            "png", "image/png");
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ProfileImageCache imageCache;
+    private final LocalFileLayout fileLayout;
+    private final long sendfileMinBytes;
+
+    public ProfilePictureController(ProfileImageCache imageCache,
+                                    LocalFileLayout fileLayout,
+                                    @Value("${app.storage.local.sendfile-min-bytes:49152}") long sendfileMinBytes) {
+        this.imageCache = imageCache;
+        this.fileLayout = fileLayout;
+        this.sendfileMinBytes = sendfileMinBytes;
+    }
+
+    @GetMapping("/${app.storage.local.profile-folder:profile-pictures}/{fileName}")
+    public void getProfilePicture(@PathVariable String fileName,
+                                  HttpServletRequest request,
+                                  HttpServletResponse response) throws IOException {
+        if (!FILE_NAME.matcher(fileName).matches()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Path file = fileLayout.pathOf(fileName);
+        CachedImage cached = imageCache.get(fileName);
+        long length;
+        long lastModified;
+        if (cached != null) {
+            length = cached.length();
+            lastModified = cached.lastModified();
+        } else {
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                // Not migrated to the sharded layout yet
+                file = fileLayout.legacyPathOf(fileName);
+                try {
+                    attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (NoSuchFileException notFound) {
+                    response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                    return;
+                }
+            }
+            if (!attributes.isRegularFile()) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            length = attributes.size();
+            lastModified = attributes.lastModifiedTime().toMillis();
+        }
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+            }
+        }
+
+        response.setContentType(contentType(fileName));
+        response.setContentLengthLong(end - start);
+        if ("HEAD".equals(request.getMethod()) || end == start) {
+            return;
+        }
+
+        if (cached == null && imageCache.isCacheable(length)) {
+            cached = imageCache.load(fileName, file, lastModified);
+        }
+        if (cached != null) {
+            ByteBuffer body = cached.data().duplicate();
+            body.position((int) start).limit((int) end);
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            while (body.hasRemaining()) {
+                target.write(body);
+            }
+            return;
+        }
+
+        if (end - start >= sendfileMinBytes && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat writes the file itself once this handler returns
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ServletOutputStream out = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            while (position < end) {
+                long written = channel.transferTo(position, end - position, target);
+                if (written <= 0) {
+                    break;
+                }
+                position += written;
+            }
+        }
+    }
+
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // Weak comparison, as RFC 9110 prescribes for If-None-Match
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns {@code [start, end)} for a satisfiable single byte range, an
+     * empty array when the header should be ignored (unsupported unit or
+     * several ranges) and {@code null} when the range cannot be satisfied.
+     */
+    private static long[] parseRange(String header, long length) {
+        var matcher = BYTE_RANGE.matcher(header.trim());
+        if (!matcher.matches()) {
+            return new long[0];
+        }
+        String first = matcher.group(1);
+        String last = matcher.group(2);
+        try {
+            if (first.isEmpty()) {
+                if (last.isEmpty()) {
+                    return new long[0];
+                }
+                long suffix = Long.parseLong(last);
+                return suffix == 0 || length == 0 ? null : new long[]{Math.max(0, length - suffix), length};
+            }
+            long start = Long.parseLong(first);
+            if (start >= length) {
+                return null;
+            }
+            long end = last.isEmpty() ? length : Math.min(length, Long.parseLong(last) + 1);
+            return end <= start ? new long[0] : new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private static String contentType(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String extension = dot >= 0 ? fileName.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+        return CONTENT_TYPES.getOrDefault(extension, "application/octet-stream");
+    }
+}
@@ -1,23 +1,44 @@
 package org.example.userservice.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.example.userservice.dto.requests.ChangePasswordRequestDTO;
+import org.example.userservice.dto.requests.ProfilePictureUploadCompleteRequestDTO;
+import org.example.userservice.dto.requests.ProfilePictureUploadRequestDTO;
 import org.example.userservice.dto.requests.UpdateUserRequestDTO;
+import org.example.userservice.dto.requests.WalletLookupRequestDTO;
+import org.example.userservice.dto.responses.AdminDashboardStatsDTO;
 import org.example.userservice.dto.responses.AdminUserResponseDTO;
+import org.example.userservice.dto.responses.HostRankingDTO;
+import org.example.userservice.dto.responses.PresignedUploadDTO;
+import org.example.userservice.dto.responses.StorageMigrationStatusDTO;
+import org.example.userservice.dto.responses.UserChangesPageDTO;
 import org.example.userservice.dto.responses.UserMeResponseDTO;
 import org.example.userservice.dto.responses.UserPublicProfileResponseDTO;
+import org.example.userservice.dto.responses.WalletConflictDTO;
+import org.example.userservice.dto.responses.WalletOwnerDTO;
+import org.example.userservice.enums.UserRoleEnum;
+import org.example.userservice.security.GatewayPrincipal;
+import org.example.userservice.security.RequiresRole;
+import org.example.userservice.service.AdminStatsService;
 import org.example.userservice.service.AuthenticationService;
+import org.example.userservice.service.HostRankingService;
+import org.example.userservice.service.StorageMigrationService;
+import org.example.userservice.service.UserChangeFeedService;
 import org.example.userservice.service.UserImageService;
 import org.example.userservice.service.UserService;
+import org.example.userservice.service.WalletLookupService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/users")
@@ -27,21 +48,63 @@ public class UserController {
     private final UserService userService;
     private final UserImageService userImageService;
     private final AuthenticationService authenticationService;
+    private final AdminStatsService adminStatsService;
+    private final HostRankingService hostRankingService;
+    private final WalletLookupService walletLookupService;
+    private final UserChangeFeedService userChangeFeedService;
+    private final StorageMigrationService storageMigrationService;
 
     @GetMapping("/me")
     public ResponseEntity<UserMeResponseDTO> getMe(
-            @RequestHeader("X-User-Id") String userId) {
-        return ResponseEntity.ok(userService.findMeById(Long.parseLong(userId)));
+            GatewayPrincipal principal) {
+        return ResponseEntity.ok(userService.findMeById(principal.userId()));
     }
 
     @PutMapping("/me")
     public ResponseEntity<Void> updateMe(
-            @RequestHeader("X-User-Id") String userId,
+            GatewayPrincipal principal,
             @RequestBody @Valid UpdateUserRequestDTO updateUserRequestDTO) {
-        userService.updateMe(updateUserRequestDTO, Long.parseLong(userId));
+        userService.updateMe(updateUserRequestDTO, principal.userId());
         return ResponseEntity.ok().build();
     }
 
+    @GetMapping("/by-wallet/{address}")
+    public ResponseEntity<WalletOwnerDTO> getByWallet(
+            @PathVariable String address) {
+        return ResponseEntity.ok(walletLookupService.findByWallet(address));
+    }
+
+    @PostMapping("/by-wallet/batch")
+    public ResponseEntity<Map<String, Long>> getByWallets(
+            @RequestBody @Valid WalletLookupRequestDTO walletLookupRequestDTO) {
+        return ResponseEntity.ok(walletLookupService.findByWallets(walletLookupRequestDTO.getAddresses()));
+    }
+
+    /**
+     * Change feed for the services that replicate user rows (property,
+     * booking, indexer). They call it through the gateway with their service
+     * credential, which carries the SERVICE role.
+     */
+    @GetMapping("/changes")
+    @RequiresRole({UserRoleEnum.SERVICE, UserRoleEnum.ADMIN})
+    public ResponseEntity<UserChangesPageDTO> getChanges(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(userChangeFeedService.getChanges(cursor, limit));
+    }
+
+    @GetMapping("/hosts/top")
+    public ResponseEntity<List<HostRankingDTO>> getTopHosts(
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(hostRankingService.topHosts(limit));
+    }
+
+    @GetMapping("/{id}/host-rank")
+    public ResponseEntity<HostRankingDTO> getHostRank(
+            @PathVariable Long id) {
+        return ResponseEntity.ok(hostRankingService.rankOf(id));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<UserPublicProfileResponseDTO> getHost(
             @PathVariable Long id) {
@@ -50,134 +113,153 @@ public class UserController {
     }
 
     @GetMapping("/{id}/stats")
+    @RequiresRole(value = UserRoleEnum.ADMIN, orSelf = "id")
     public ResponseEntity<org.example.userservice.dto.responses.UserStatsDTO> getUserStats(
-            @PathVariable Long id,
-            @RequestHeader(value = "X-User-Id", required = false) String requesterId,
-            @RequestHeader(value = "X-User-Roles", required = false) String requesterRoles) {
-        boolean isAdmin = requesterRoles != null && requesterRoles.contains("ADMIN");
-        boolean isSelf = requesterId != null && requesterId.equals(id.toString());
-
-        if (!isAdmin && !isSelf) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-
+            @PathVariable Long id) {
         return ResponseEntity.ok(userService.getUserStats(id));
     }
 
     @PutMapping("/me/profile-picture")
     public ResponseEntity<String> updateUserProfilePicture(
             @RequestPart MultipartFile file,
-            @RequestHeader("X-User-Id") String userId) {
-        String profilePictureUrl = userImageService.uploadProfilePicture(file, Long.parseLong(userId));
+            GatewayPrincipal principal) {
+        String profilePictureUrl = userImageService.uploadProfilePicture(file, principal.userId());
         return ResponseEntity.ok().body(profilePictureUrl);
     }
 
+    @PutMapping(value = "/me/profile-picture", consumes = {"image/jpeg", "image/jpg", "image/png"})
+    public CompletableFuture<ResponseEntity<String>> streamUserProfilePicture(
+            HttpServletRequest request,
+            GatewayPrincipal principal) throws IOException {
+        return userImageService.uploadProfilePicture(
+                        request.getInputStream(), request.getContentLengthLong(), request.getContentType(),
+                        principal.userId())
+                .thenApply(url -> ResponseEntity.ok().body(url));
+    }
+
+    @PostMapping("/me/profile-picture/upload-url")
+    public ResponseEntity<PresignedUploadDTO> createProfilePictureUploadUrl(
+            GatewayPrincipal principal,
+            @RequestBody @Valid ProfilePictureUploadRequestDTO uploadRequestDTO) {
+        return ResponseEntity.ok(userImageService.createProfilePictureUploadUrl(
+                principal.userId(), uploadRequestDTO.getContentType(), uploadRequestDTO.getContentLength()));
+    }
+
+    @PostMapping("/me/profile-picture/complete")
+    public ResponseEntity<String> completeProfilePictureUpload(
+            GatewayPrincipal principal,
+            @RequestBody @Valid ProfilePictureUploadCompleteRequestDTO completeRequestDTO) {
+        return ResponseEntity.ok().body(
+                userImageService.completeProfilePictureUpload(principal.userId(), completeRequestDTO.getKey()));
+    }
+
     @DeleteMapping("/me/profile-picture")
     public ResponseEntity<HttpStatus> deleteUserProfilePicture(
-            @RequestHeader("X-User-Id") String userId) {
-        userImageService.deleteProfilePicture(Long.parseLong(userId));
+            GatewayPrincipal principal) {
+        userImageService.deleteProfilePicture(principal.userId());
         return ResponseEntity.ok().body(HttpStatus.OK);
     }
 
     @PostMapping("/me/change-password")
     public ResponseEntity<Map<String, String>> changePassword(
-            @RequestHeader("X-User-Id") String userId,
+            GatewayPrincipal principal,
             @RequestBody @Valid ChangePasswordRequestDTO changePasswordRequestDTO) {
-        authenticationService.changePasswordFromProfile(Long.parseLong(userId), changePasswordRequestDTO);
+        authenticationService.changePasswordFromProfile(principal.userId(), changePasswordRequestDTO);
         Map<String, String> response = new HashMap<>();
         response.put("message", "Password changed successfully");
         return ResponseEntity.ok(response);
     }
 
     @PostMapping("/{id}/become-host")
+    @RequiresRole(value = UserRoleEnum.ADMIN, orSelf = "id")
     public ResponseEntity<Void> becomeHost(
-            @PathVariable Long id,
-            @RequestHeader("X-User-Id") String requesterId,
-            @RequestHeader(value = "X-User-Roles", required = false) String requesterRoles) {
-        boolean isAdmin = requesterRoles != null && requesterRoles.contains("ADMIN");
-        boolean isSelf = requesterId != null && requesterId.equals(id.toString());
-
-        if (!isAdmin && !isSelf) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-
+            @PathVariable Long id) {
         userService.addHostRole(id);
         return ResponseEntity.ok().build();
     }
 
     @GetMapping("/admin/all")
-    public ResponseEntity<List<AdminUserResponseDTO>> getAllUsersForAdmin(
-            @RequestHeader("X-User-Roles") String userRoles) {
-        if (userRoles == null || !userRoles.contains("ADMIN")) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-
+    @RequiresRole(UserRoleEnum.ADMIN)
+    public ResponseEntity<List<AdminUserResponseDTO>> getAllUsersForAdmin() {
         List<AdminUserResponseDTO> users = userService.findAllForAdmin();
         return ResponseEntity.ok(users);
     }
 
+    @GetMapping("/admin/stats")
+    @RequiresRole(UserRoleEnum.ADMIN)
+    public ResponseEntity<AdminDashboardStatsDTO> getAdminStats() {
+        return ResponseEntity.ok(adminStatsService.getStats());
+    }
+
+    @PostMapping("/admin/storage-migration")
+    @RequiresRole(UserRoleEnum.ADMIN)
+    public ResponseEntity<StorageMigrationStatusDTO> startStorageMigration(
+            @RequestParam(defaultValue = "false") boolean restart) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(storageMigrationService.start(restart));
+    }
+
+    @GetMapping("/admin/storage-migration")
+    @RequiresRole(UserRoleEnum.ADMIN)
+    public ResponseEntity<StorageMigrationStatusDTO> getStorageMigrationStatus() {
+        return ResponseEntity.ok(storageMigrationService.getStatus());
+    }
+
+    @GetMapping("/admin/wallet-conflicts")
+    @RequiresRole(UserRoleEnum.ADMIN)
+    public ResponseEntity<List<WalletConflictDTO>> getWalletConflicts() {
+        return ResponseEntity.ok(walletLookupService.findConflicts());
+    }
+
+    @PostMapping("/admin/wallet-conflicts/resolve")
+    @RequiresRole(UserRoleEnum.ADMIN)
+    public ResponseEntity<List<WalletConflictDTO>> resolveWalletConflicts() {
+        return ResponseEntity.ok(walletLookupService.resolveConflicts());
+    }
+
     @PostMapping("/admin/{id}/enable")
+    @RequiresRole(UserRoleEnum.ADMIN)
     public ResponseEntity<Void> enableUser(
-            @PathVariable Long id,
-            @RequestHeader("X-User-Roles") String userRoles) {
-        if (userRoles == null || !userRoles.contains("ADMIN")) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
+            @PathVariable Long id) {
         userService.enableUser(id);
         return ResponseEntity.ok().build();
     }
 
     @PostMapping("/admin/{id}/disable")
+    @RequiresRole(UserRoleEnum.ADMIN)
     public ResponseEntity<Void> disableUser(
-            @PathVariable Long id,
-            @RequestHeader("X-User-Roles") String userRoles) {
-        if (userRoles == null || !userRoles.contains("ADMIN")) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
+            @PathVariable Long id) {
         userService.disableUser(id);
         return ResponseEntity.ok().build();
     }
 
     @PostMapping("/admin/{id}/add-admin-role")
+    @RequiresRole(UserRoleEnum.ADMIN)
     public ResponseEntity<Void> addAdminRole(
-            @PathVariable Long id,
-            @RequestHeader("X-User-Roles") String userRoles) {
-        if (userRoles == null || !userRoles.contains("ADMIN")) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
+            @PathVariable Long id) {
         userService.addAdminRole(id);
         return ResponseEntity.ok().build();
     }
 
     @PostMapping("/admin/{id}/remove-admin-role")
+    @RequiresRole(UserRoleEnum.ADMIN)
     public ResponseEntity<Void> removeAdminRole(
-            @PathVariable Long id,
-            @RequestHeader("X-User-Roles") String userRoles) {
-        if (userRoles == null || !userRoles.contains("ADMIN")) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
+            @PathVariable Long id) {
         userService.removeAdminRole(id);
         return ResponseEntity.ok().build();
     }
 
     @PostMapping("/admin/{id}/add-host-role")
+    @RequiresRole(UserRoleEnum.ADMIN)
     public ResponseEntity<Void> addHostRoleByAdmin(
-            @PathVariable Long id,
-            @RequestHeader("X-User-Roles") String userRoles) {
-        if (userRoles == null || !userRoles.contains("ADMIN")) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
+            @PathVariable Long id) {
         userService.addHostRole(id);
         return ResponseEntity.ok().build();
     }
 
     @PostMapping("/admin/{id}/remove-host-role")
+    @RequiresRole(UserRoleEnum.ADMIN)
     public ResponseEntity<Void> removeHostRole(
-            @PathVariable Long id,
-            @RequestHeader("X-User-Roles") String userRoles) {
-        if (userRoles == null || !userRoles.contains("ADMIN")) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
+            @PathVariable Long id) {
         userService.removeHostRole(id);
         return ResponseEntity.ok().build();
     }
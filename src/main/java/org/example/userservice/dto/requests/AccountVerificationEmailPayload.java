@@ -0,0 +1,18 @@
+package org.example.userservice.dto.requests;
+
+import org.example.userservice.enums.ChannelTypeEnum;
+
+import java.time.LocalDateTime;
+
+public record AccountVerificationEmailPayload(
+        String verificationCode,
+        LocalDateTime expiresAt,
+        String fullName,
+        String userEmail
+) implements NotificationPayload {
+
+    @Override
+    public ChannelTypeEnum channel() {
+        return ChannelTypeEnum.ACCOUNT_VERIFICATION_EMAIL;
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.userservice.dto.requests;
+
+import org.example.userservice.enums.ChannelTypeEnum;
+
+import java.io.Serializable;
+
+/**
+ * Typed body of a {@link NotificationRequestDTO}. Each channel has its own
+ * payload record whose component names match the keys the notification
+ * service reads, so the JSON form is unchanged.
+ */
+public sealed interface NotificationPayload extends Serializable
+        permits PasswordResetEmailPayload, AccountVerificationEmailPayload, WelcomeEmailPayload {
+
+    ChannelTypeEnum channel();
+}
@@ -6,13 +6,21 @@ import org.example.userservice.enums.ChannelTypeEnum;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
-import java.util.Map;
 
 @Data
 @NoArgsConstructor
 public class NotificationRequestDTO implements Serializable {
     String userId;
-    Map<String, Object> message;
+    NotificationPayload message;
     ChannelTypeEnum channel;
     LocalDateTime createdAt;
+
+    public static NotificationRequestDTO of(Long userId, NotificationPayload payload) {
+        NotificationRequestDTO request = new NotificationRequestDTO();
+        request.setUserId(userId != null ? userId.toString() : null);
+        request.setMessage(payload);
+        request.setChannel(payload.channel());
+        request.setCreatedAt(LocalDateTime.now());
+        return request;
+    }
 }
@@ -0,0 +1,16 @@
+package org.example.userservice.dto.requests;
+
+import org.example.userservice.enums.ChannelTypeEnum;
+
+public record PasswordResetEmailPayload(
+        String token,
+        String userEmail,
+        String expiresAt,
+        String fullName
+) implements NotificationPayload {
+
+    @Override
+    public ChannelTypeEnum channel() {
+        return ChannelTypeEnum.PASSWORD_RESET_EMAIL;
+    }
+}
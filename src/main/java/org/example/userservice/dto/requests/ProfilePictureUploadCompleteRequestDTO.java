@@ -0,0 +1,12 @@
+package org.example.userservice.dto.requests;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ProfilePictureUploadCompleteRequestDTO {
+    @NotBlank(message = "Upload key is required")
+    private String key;
+}
@@ -0,0 +1,16 @@
+package org.example.userservice.dto.requests;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ProfilePictureUploadRequestDTO {
+    @NotBlank(message = "Content type is required")
+    private String contentType;
+
+    @Positive(message = "Content length must be positive")
+    private long contentLength;
+}
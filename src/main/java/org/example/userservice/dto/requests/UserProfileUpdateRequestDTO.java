@@ -2,11 +2,24 @@ package org.example.userservice.dto.requests;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.example.userservice.enums.UserRoleEnum;
 
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Full snapshot of the profile fields other services mirror. Versions grow
+ * per user, so a consumer can drop any snapshot older than one it has seen.
+ */
 @Getter
 @Setter
 public class UserProfileUpdateRequestDTO {
     private String userId;
+    private Long version;
     private Boolean complete;
+    private String walletAddress;
+    private Set<UserRoleEnum> roles;
+    private Boolean enabled;
+    private LocalDateTime updatedAt;
 }
 
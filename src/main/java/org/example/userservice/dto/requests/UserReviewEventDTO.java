@@ -0,0 +1,17 @@
+package org.example.userservice.dto.requests;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+public class UserReviewEventDTO implements Serializable {
+    String eventId;
+    Long userId;
+    Double rating;
+    Integer scoreDelta;
+    LocalDateTime occurredAt;
+}
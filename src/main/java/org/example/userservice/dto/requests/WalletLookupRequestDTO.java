@@ -0,0 +1,16 @@
+package org.example.userservice.dto.requests;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class WalletLookupRequestDTO {
+    @NotEmpty(message = "At least one address is required")
+    @Size(max = 5000, message = "At most 5000 addresses can be looked up at once")
+    private List<String> addresses;
+}
@@ -0,0 +1,14 @@
+package org.example.userservice.dto.requests;
+
+import org.example.userservice.enums.ChannelTypeEnum;
+
+public record WelcomeEmailPayload(
+        String userEmail,
+        String fullName
+) implements NotificationPayload {
+
+    @Override
+    public ChannelTypeEnum channel() {
+        return ChannelTypeEnum.WELCOME_EMAIL;
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.userservice.dto.responses;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import org.example.userservice.enums.UserRoleEnum;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Getter
+@Setter
+@Builder
+public class AdminDashboardStatsDTO {
+    private long totalUsers;
+    private long enabledUsers;
+    private long disabledUsers;
+    private long unverifiedUsers;
+    private Map<UserRoleEnum, Long> usersByRole;
+    private Map<LocalDate, Long> signupsPerDay;
+    private LocalDateTime reconciledAt;
+}
@@ -22,6 +22,8 @@ public class AdminUserResponseDTO {
     private String lastName;
     private String email;
     private String profilePicture;
+    private String profilePictureThumb;
+    private String profilePictureMedium;
     private LocalDate birthday;
     private Long phoneNumber;
     
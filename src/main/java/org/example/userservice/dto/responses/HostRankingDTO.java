@@ -0,0 +1,15 @@
+package org.example.userservice.dto.responses;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+public class HostRankingDTO {
+    private Long userId;
+    private long rank;
+    private Double rating;
+    private Integer score;
+}
@@ -0,0 +1,19 @@
+package org.example.userservice.dto.responses;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Getter
+@Setter
+@Builder
+public class PresignedUploadDTO {
+    private String uploadUrl;
+    private String method;
+    private String key;
+    private Map<String, String> headers;
+    private Instant expiresAt;
+}
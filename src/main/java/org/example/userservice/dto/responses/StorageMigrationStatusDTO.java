@@ -0,0 +1,23 @@
+package org.example.userservice.dto.responses;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Builder
+public class StorageMigrationStatusDTO {
+    private boolean running;
+    private long lastUserId;
+    private long migratedUsers;
+    private long migratedFiles;
+    private long failedFiles;
+    private long migratedBytes;
+    private double filesPerSecond;
+    private double megabytesPerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
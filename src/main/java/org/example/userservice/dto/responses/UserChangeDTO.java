@@ -0,0 +1,25 @@
+package org.example.userservice.dto.responses;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import org.example.userservice.enums.UserRoleEnum;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+@Getter
+@Setter
+@Builder
+public class UserChangeDTO {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String walletAddress;
+    private String profilePicture;
+    private Set<UserRoleEnum> roles;
+    private boolean enabled;
+    private Double rating;
+    private Integer score;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,16 @@
+package org.example.userservice.dto.responses;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class UserChangesPageDTO {
+    private List<UserChangeDTO> changes;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -21,6 +21,8 @@ public class UserMeResponseDTO {
     private String lastName;
     private String email;
     private String profilePicture;
+    private String profilePictureThumb;
+    private String profilePictureMedium;
     private LocalDate birthday;
     private Long phoneNumber;
     
@@ -11,5 +11,7 @@ public class UserPublicProfileResponseDTO {
     private String firstName;
     private String lastName;
     private String profilePicture;
+    private String profilePictureThumb;
+    private String profilePictureMedium;
     private Long phoneNumber;
 }
@@ -0,0 +1,16 @@
+package org.example.userservice.dto.responses;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class WalletConflictDTO {
+    private String walletAddress;
+    // In registration order; the first user keeps the address when the conflict is resolved
+    private List<Long> userIds;
+}
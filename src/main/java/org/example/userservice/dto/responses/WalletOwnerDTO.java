@@ -0,0 +1,13 @@
+package org.example.userservice.dto.responses;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+public class WalletOwnerDTO {
+    private Long userId;
+    private String walletAddress;
+}
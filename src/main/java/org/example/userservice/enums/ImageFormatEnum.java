@@ -0,0 +1,17 @@
+package org.example.userservice.enums;
+
+public enum ImageFormatEnum {
+    JPEG("image/jpeg"),
+    PNG("image/png"),
+    WEBP("image/webp");
+
+    private final String contentType;
+
+    ImageFormatEnum(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
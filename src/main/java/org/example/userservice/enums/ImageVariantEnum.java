@@ -0,0 +1,17 @@
+package org.example.userservice.enums;
+
+public enum ImageVariantEnum {
+    THUMB(96),
+    MEDIUM(320),
+    FULL(1024);
+
+    private final int maxEdge;
+
+    ImageVariantEnum(int maxEdge) {
+        this.maxEdge = maxEdge;
+    }
+
+    public int getMaxEdge() {
+        return maxEdge;
+    }
+}
@@ -0,0 +1,6 @@
+package org.example.userservice.enums;
+
+public enum OutboxStatusEnum {
+    PENDING,
+    DEAD
+}
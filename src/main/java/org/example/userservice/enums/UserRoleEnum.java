@@ -3,5 +3,7 @@ package org.example.userservice.enums;
 public enum UserRoleEnum {
     TENANT,
     HOST,
-    ADMIN
+    ADMIN,
+    // Never stored for a user; the gateway sets it on credentials issued to peer services
+    SERVICE
 }
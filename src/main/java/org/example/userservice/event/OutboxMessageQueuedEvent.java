@@ -0,0 +1,8 @@
+package org.example.userservice.event;
+
+/**
+ * Raised when a message that is due immediately has been written to the
+ * outbox, so the relay can pick it up as soon as the transaction commits.
+ */
+public record OutboxMessageQueuedEvent(String aggregateId) {
+}
@@ -0,0 +1,9 @@
+package org.example.userservice.event;
+
+/**
+ * Raised inside a transaction that changed fields mirrored by other
+ * services. The snapshot itself is read from the user row when the
+ * transaction is about to commit.
+ */
+public record UserProfileChangedEvent(Long userId) {
+}
@@ -0,0 +1,13 @@
+package org.example.userservice.exception;
+
+/**
+ * An expected outcome of a request, such as a wrong password or an unknown
+ * user, rather than a fault. These are thrown on every failed login and
+ * are fully described by their type and message, so no stack trace is
+ * captured for them.
+ */
+public abstract class BusinessException extends RuntimeException {
+    protected BusinessException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -6,6 +6,7 @@ import org.example.userservice.exception.passwordException.PasswordResetEmailFai
 import org.example.userservice.exception.passwordException.PasswordResetTokenNotFoundException;
 import org.example.userservice.exception.passwordException.UsedPasswordResetTokenException;
 import org.example.userservice.exception.passwordException.WrongPasswordException;
+import org.example.userservice.exception.storageException.StorageMigrationConflictException;
 import org.example.userservice.exception.userException.*;
 import org.example.userservice.util.ErrorResponse;
 import org.springframework.http.HttpStatus;
@@ -14,6 +15,7 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.resource.NoResourceFoundException;
 
@@ -27,181 +29,115 @@ public class GlobalExceptionHandler {
         @ExceptionHandler(UserAlreadyExistsException.class)
         public ResponseEntity<ErrorResponse> handleUserAlreadyExists(
                         UserAlreadyExistsException ex, WebRequest request) {
-                ErrorResponse error = new ErrorResponse(
-                                LocalDateTime.now(),
-                                HttpStatus.CONFLICT.value(),
-                                "User Already Exists",
-                                ex.getMessage(),
-                                request.getDescription(false).replace("uri=", ""));
-                return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+                return errorResponse(HttpStatus.CONFLICT, "User Already Exists", ex.getMessage(), request);
+        }
+
+        @ExceptionHandler(WalletAddressAlreadyInUseException.class)
+        public ResponseEntity<ErrorResponse> handleWalletAddressAlreadyInUse(
+                        WalletAddressAlreadyInUseException ex, WebRequest request) {
+                return errorResponse(HttpStatus.CONFLICT, "Wallet Address Already In Use", ex.getMessage(), request);
         }
 
         @ExceptionHandler(UserNotFoundException.class)
         public ResponseEntity<ErrorResponse> handleUserNotFound(
                         UserNotFoundException ex, WebRequest request) {
-                ErrorResponse error = new ErrorResponse(
-                                LocalDateTime.now(),
-                                HttpStatus.NOT_FOUND.value(),
-                                "User Not Found",
-                                ex.getMessage(),
-                                request.getDescription(false).replace("uri=", ""));
-                return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+                return errorResponse(HttpStatus.NOT_FOUND, "User Not Found", ex.getMessage(), request);
         }
 
         @ExceptionHandler(UnderRequiredAgeException.class)
         public ResponseEntity<ErrorResponse> handleUnderRequiredAge(
                         UnderRequiredAgeException ex, WebRequest request) {
-                ErrorResponse error = new ErrorResponse(
-                                LocalDateTime.now(),
-                                HttpStatus.BAD_REQUEST.value(),
-                                "Age Requirement Not Met",
-                                ex.getMessage(),
-                                request.getDescription(false).replace("uri=", ""));
-                return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+                return errorResponse(HttpStatus.BAD_REQUEST, "Age Requirement Not Met", ex.getMessage(), request);
         }
 
         @ExceptionHandler(DisabledAccountException.class)
         public ResponseEntity<ErrorResponse> handleDisabledAccount(
                         DisabledAccountException ex, WebRequest request) {
-                ErrorResponse error = new ErrorResponse(
-                                LocalDateTime.now(),
-                                HttpStatus.FORBIDDEN.value(),
-                                "Account Disabled",
-                                ex.getMessage(),
-                                request.getDescription(false).replace("uri=", ""));
-                return new ResponseEntity<>(error, HttpStatus.FORBIDDEN);
+                return errorResponse(HttpStatus.FORBIDDEN, "Account Disabled", ex.getMessage(), request);
         }
 
         @ExceptionHandler(WrongPasswordException.class)
         public ResponseEntity<ErrorResponse> handleWrongPassword(
                         WrongPasswordException ex, WebRequest request) {
-                ErrorResponse error = new ErrorResponse(
-                                LocalDateTime.now(),
-                                HttpStatus.UNAUTHORIZED.value(),
-                                "Invalid Credentials",
-                                ex.getMessage(),
-                                request.getDescription(false).replace("uri=", ""));
-                return new ResponseEntity<>(error, HttpStatus.UNAUTHORIZED);
+                return errorResponse(HttpStatus.UNAUTHORIZED, "Invalid Credentials", ex.getMessage(), request);
         }
 
         @ExceptionHandler(LoginException.class)
         public ResponseEntity<ErrorResponse> handleLogin(
                         LoginException ex, WebRequest request) {
-                ErrorResponse error = new ErrorResponse(
-                                LocalDateTime.now(),
-                                HttpStatus.UNAUTHORIZED.value(),
-                                "Login Failed",
-                                ex.getMessage(),
-                                request.getDescription(false).replace("uri=", ""));
-                return new ResponseEntity<>(error, HttpStatus.UNAUTHORIZED);
+                return errorResponse(HttpStatus.UNAUTHORIZED, "Login Failed", ex.getMessage(), request);
         }
 
         @ExceptionHandler(AlreadyVerifiedException.class)
         public ResponseEntity<ErrorResponse> handleAlreadyVerified(
                         AlreadyVerifiedException ex, WebRequest request) {
-                ErrorResponse error = new ErrorResponse(
-                                LocalDateTime.now(),
-                                HttpStatus.CONFLICT.value(),
-                                "Already Verified",
-                                ex.getMessage(),
-                                request.getDescription(false).replace("uri=", ""));
-                return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+                return errorResponse(HttpStatus.CONFLICT, "Already Verified", ex.getMessage(), request);
         }
 
         @ExceptionHandler(WrongVerificationCodeException.class)
         public ResponseEntity<ErrorResponse> handleWrongVerificationCode(
                         WrongVerificationCodeException ex, WebRequest request) {
-                ErrorResponse error = new ErrorResponse(
-                                LocalDateTime.now(),
-                                HttpStatus.BAD_REQUEST.value(),
-                                "Invalid Verification Code",
-                                ex.getMessage(),
-                                request.getDescription(false).replace("uri=", ""));
-                return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+                return errorResponse(HttpStatus.BAD_REQUEST, "Invalid Verification Code", ex.getMessage(), request);
         }
 
         @ExceptionHandler(ExpiredVerificationCodeException.class)
         public ResponseEntity<ErrorResponse> handleExpiredVerificationCode(
                         ExpiredVerificationCodeException ex, WebRequest request) {
-                ErrorResponse error = new ErrorResponse(
-                                LocalDateTime.now(),
-                                HttpStatus.GONE.value(),
-                                "Verification Code Expired",
-                                ex.getMessage(),
-                                request.getDescription(false).replace("uri=", ""));
-                return new ResponseEntity<>(error, HttpStatus.GONE);
+                return errorResponse(HttpStatus.GONE, "Verification Code Expired", ex.getMessage(), request);
         }
 
         @ExceptionHandler(VerificationEmailFailureException.class)
         public ResponseEntity<ErrorResponse> handleVerificationEmailFailure(
                         VerificationEmailFailureException ex, WebRequest request) {
-                ErrorResponse error = new ErrorResponse(
-                                LocalDateTime.now(),
-                                HttpStatus.INTERNAL_SERVER_ERROR.value(),
-                                "Email Sending Failed",
-                                ex.getMessage(),
-                                request.getDescription(false).replace("uri=", ""));
-                return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
+                return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Email Sending Failed", ex.getMessage(), request);
         }
 
         @ExceptionHandler(PasswordResetTokenNotFoundException.class)
         public ResponseEntity<ErrorResponse> handlePasswordResetTokenNotFound(
                         PasswordResetTokenNotFoundException ex, WebRequest request) {
-                ErrorResponse error = new ErrorResponse(
-                                LocalDateTime.now(),
-                                HttpStatus.NOT_FOUND.value(),
-                                "Token Not Found",
-                                ex.getMessage(),
-                                request.getDescription(false).replace("uri=", ""));
-                return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+                return errorResponse(HttpStatus.NOT_FOUND, "Token Not Found", ex.getMessage(), request);
         }
 
         @ExceptionHandler(ExpiredPasswordResetTokenException.class)
         public ResponseEntity<ErrorResponse> handleExpiredPasswordResetToken(
                         ExpiredPasswordResetTokenException ex, WebRequest request) {
-                ErrorResponse error = new ErrorResponse(
-                                LocalDateTime.now(),
-                                HttpStatus.GONE.value(),
-                                "Token Expired",
-                                ex.getMessage(),
-                                request.getDescription(false).replace("uri=", ""));
-                return new ResponseEntity<>(error, HttpStatus.GONE);
+                return errorResponse(HttpStatus.GONE, "Token Expired", ex.getMessage(), request);
         }
 
         @ExceptionHandler(UsedPasswordResetTokenException.class)
         public ResponseEntity<ErrorResponse> handleUsedPasswordResetToken(
                         UsedPasswordResetTokenException ex, WebRequest request) {
-                ErrorResponse error = new ErrorResponse(
-                                LocalDateTime.now(),
-                                HttpStatus.CONFLICT.value(),
-                                "Token Already Used",
-                                ex.getMessage(),
-                                request.getDescription(false).replace("uri=", ""));
-                return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+                return errorResponse(HttpStatus.CONFLICT, "Token Already Used", ex.getMessage(), request);
         }
 
         @ExceptionHandler(InvalidPasswordResetTokenException.class)
         public ResponseEntity<ErrorResponse> handleInvalidPasswordResetToken(
                         InvalidPasswordResetTokenException ex, WebRequest request) {
-                ErrorResponse error = new ErrorResponse(
-                                LocalDateTime.now(),
-                                HttpStatus.BAD_REQUEST.value(),
-                                "Invalid Token",
-                                ex.getMessage(),
-                                request.getDescription(false).replace("uri=", ""));
-                return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+                return errorResponse(HttpStatus.BAD_REQUEST, "Invalid Token", ex.getMessage(), request);
         }
 
         @ExceptionHandler(PasswordResetEmailFailureException.class)
         public ResponseEntity<ErrorResponse> handlePasswordResetEmailFailure(
                         PasswordResetEmailFailureException ex, WebRequest request) {
-                ErrorResponse error = new ErrorResponse(
-                                LocalDateTime.now(),
-                                HttpStatus.INTERNAL_SERVER_ERROR.value(),
-                                "Email Sending Failed",
-                                ex.getMessage(),
-                                request.getDescription(false).replace("uri=", ""));
-                return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
+                return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Email Sending Failed", ex.getMessage(), request);
+        }
+
+        @ExceptionHandler(MalformedGatewayHeaderException.class)
+        public ResponseEntity<ErrorResponse> handleMalformedGatewayHeader(
+                        MalformedGatewayHeaderException ex, WebRequest request) {
+                return errorResponse(HttpStatus.BAD_REQUEST, "Invalid Gateway Headers", ex.getMessage(), request);
+        }
+
+        @ExceptionHandler(AccessDeniedException.class)
+        public ResponseEntity<ErrorResponse> handleAccessDenied(
+                        AccessDeniedException ex, WebRequest request) {
+                return errorResponse(HttpStatus.FORBIDDEN, "Access Denied", ex.getMessage(), request);
+        }
+
+        @ExceptionHandler(StorageMigrationConflictException.class)
+        public ResponseEntity<ErrorResponse> handleStorageMigrationConflict(
+                        StorageMigrationConflictException ex, WebRequest request) {
+                return errorResponse(HttpStatus.CONFLICT, "Storage Migration Not Started", ex.getMessage(), request);
         }
 
         @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -214,49 +150,26 @@ public class GlobalExceptionHandler {
                         errors.put(fieldName, errorMessage);
                 });
 
-                ErrorResponse error = new ErrorResponse(
-                                LocalDateTime.now(),
-                                HttpStatus.BAD_REQUEST.value(),
-                                "Validation Failed",
-                                errors.toString(),
-                                request.getDescription(false).replace("uri=", ""));
-                return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+                return errorResponse(HttpStatus.BAD_REQUEST, "Validation Failed", errors.toString(), request);
         }
 
         @ExceptionHandler(IllegalArgumentException.class)
         public ResponseEntity<ErrorResponse> handleIllegalArgument(
                         IllegalArgumentException ex, WebRequest request) {
-                ErrorResponse error = new ErrorResponse(
-                                LocalDateTime.now(),
-                                HttpStatus.BAD_REQUEST.value(),
-                                "Invalid Argument",
-                                ex.getMessage(),
-                                request.getDescription(false).replace("uri=", ""));
-                return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+                return errorResponse(HttpStatus.BAD_REQUEST, "Invalid Argument", ex.getMessage(), request);
         }
 
         @ExceptionHandler(ValidationException.class)
         public ResponseEntity<ErrorResponse> handleValidationException(
                         Exception ex, WebRequest request) {
-                ErrorResponse error = new ErrorResponse(
-                                LocalDateTime.now(),
-                                HttpStatus.NOT_ACCEPTABLE.value(),
-                                "Not valid",
-                                ex.getMessage(),
-                                request.getDescription(false).replace("uri=", ""));
-                return new ResponseEntity<>(error, HttpStatus.NOT_ACCEPTABLE);
+                return errorResponse(HttpStatus.NOT_ACCEPTABLE, "Not valid", ex.getMessage(), request);
         }
 
         @ExceptionHandler(NoResourceFoundException.class)
         public ResponseEntity<ErrorResponse> handleNoResourceFoundException(
                         Exception ex, WebRequest request) {
-                ErrorResponse error = new ErrorResponse(
-                                LocalDateTime.now(),
-                                HttpStatus.INTERNAL_SERVER_ERROR.value(),
-                                "Internal Server Error",
-                                "An unexpected error occurred. Please try again later.",
-                                request.getDescription(false).replace("uri=", ""));
-                return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
+                return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error",
+                                "An unexpected error occurred. Please try again later.", request);
         }
 
         @ExceptionHandler(Exception.class)
@@ -270,13 +183,21 @@ public class GlobalExceptionHandler {
                         errorMessage = detailedMessage;
                 }
 
-                ErrorResponse error = new ErrorResponse(
-                                LocalDateTime.now(),
-                                HttpStatus.INTERNAL_SERVER_ERROR.value(),
-                                "Internal Server Error",
-                                errorMessage,
-                                request.getDescription(false).replace("uri=", ""));
-
-                return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
+                return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error", errorMessage, request);
+        }
+
+        /**
+         * Builds the error body for a handled exception. The path is read
+         * from the servlet request directly instead of being cut out of the
+         * request description.
+         */
+        private static ResponseEntity<ErrorResponse> errorResponse(
+                        HttpStatus status, String error, String message, WebRequest request) {
+                String path = request instanceof ServletWebRequest servletRequest
+                                ? servletRequest.getRequest().getRequestURI()
+                                : request.getDescription(false).replace("uri=", "");
+                return new ResponseEntity<>(
+                                new ErrorResponse(LocalDateTime.now(), status.value(), error, message, path),
+                                status);
         }
 }
\ No newline at end of file
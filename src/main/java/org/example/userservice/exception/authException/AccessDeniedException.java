@@ -0,0 +1,9 @@
+package org.example.userservice.exception.authException;
+
+import org.example.userservice.exception.BusinessException;
+
+public class AccessDeniedException extends BusinessException {
+    public AccessDeniedException(String message) {
+        super(message);
+    }
+}
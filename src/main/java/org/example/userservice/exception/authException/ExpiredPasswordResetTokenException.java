@@ -1,6 +1,8 @@
 package org.example.userservice.exception.authException;
 
-public class ExpiredPasswordResetTokenException extends RuntimeException {
+import org.example.userservice.exception.BusinessException;
+
+public class ExpiredPasswordResetTokenException extends BusinessException {
     public ExpiredPasswordResetTokenException(String message) {
         super(message);
     }
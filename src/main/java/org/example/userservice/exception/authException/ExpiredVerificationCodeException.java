@@ -1,6 +1,8 @@
 package org.example.userservice.exception.authException;
 
-public class ExpiredVerificationCodeException extends RuntimeException {
+import org.example.userservice.exception.BusinessException;
+
+public class ExpiredVerificationCodeException extends BusinessException {
     public ExpiredVerificationCodeException(String message) {
         super(message);
     }
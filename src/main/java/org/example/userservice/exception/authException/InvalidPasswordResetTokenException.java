@@ -1,6 +1,8 @@
 package org.example.userservice.exception.authException;
 
-public class InvalidPasswordResetTokenException extends RuntimeException {
+import org.example.userservice.exception.BusinessException;
+
+public class InvalidPasswordResetTokenException extends BusinessException {
     public InvalidPasswordResetTokenException(String message) {
         super(message);
     }
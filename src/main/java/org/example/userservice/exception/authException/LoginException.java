@@ -1,6 +1,8 @@
 package org.example.userservice.exception.authException;
 
-public class LoginException extends RuntimeException {
+import org.example.userservice.exception.BusinessException;
+
+public class LoginException extends BusinessException {
     public LoginException(String message) {
         super(message);
     }
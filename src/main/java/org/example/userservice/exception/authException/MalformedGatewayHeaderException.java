@@ -0,0 +1,9 @@
+package org.example.userservice.exception.authException;
+
+import org.example.userservice.exception.BusinessException;
+
+public class MalformedGatewayHeaderException extends BusinessException {
+    public MalformedGatewayHeaderException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,8 @@
 package org.example.userservice.exception.authException;
 
-public class WrongVerificationCodeException extends RuntimeException {
+import org.example.userservice.exception.BusinessException;
+
+public class WrongVerificationCodeException extends BusinessException {
     public WrongVerificationCodeException(String message) {
         super(message);
     }
@@ -1,6 +1,8 @@
 package org.example.userservice.exception.passwordException;
 
-public class PasswordResetTokenNotFoundException extends RuntimeException {
+import org.example.userservice.exception.BusinessException;
+
+public class PasswordResetTokenNotFoundException extends BusinessException {
     public PasswordResetTokenNotFoundException(String message) {
         super(message);
     }
@@ -1,6 +1,8 @@
 package org.example.userservice.exception.passwordException;
 
-public class UsedPasswordResetTokenException extends RuntimeException {
+import org.example.userservice.exception.BusinessException;
+
+public class UsedPasswordResetTokenException extends BusinessException {
     public UsedPasswordResetTokenException(String message) {
         super(message);
     }
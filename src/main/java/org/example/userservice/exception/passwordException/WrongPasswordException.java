@@ -1,6 +1,8 @@
 package org.example.userservice.exception.passwordException;
 
-public class WrongPasswordException extends RuntimeException {
+import org.example.userservice.exception.BusinessException;
+
+public class WrongPasswordException extends BusinessException {
     public WrongPasswordException(String message) {
         super(message);
     }
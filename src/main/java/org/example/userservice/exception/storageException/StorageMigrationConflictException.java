@@ -0,0 +1,9 @@
+package org.example.userservice.exception.storageException;
+
+import org.example.userservice.exception.BusinessException;
+
+public class StorageMigrationConflictException extends BusinessException {
+    public StorageMigrationConflictException(String message) {
+        super(message);
+    }
+}
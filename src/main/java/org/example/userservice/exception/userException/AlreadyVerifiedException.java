@@ -1,6 +1,8 @@
 package org.example.userservice.exception.userException;
 
-public class AlreadyVerifiedException extends RuntimeException {
+import org.example.userservice.exception.BusinessException;
+
+public class AlreadyVerifiedException extends BusinessException {
     public AlreadyVerifiedException(String message) {
         super(message);
     }
@@ -1,6 +1,8 @@
 package org.example.userservice.exception.userException;
 
-public class DisabledAccountException extends RuntimeException {
+import org.example.userservice.exception.BusinessException;
+
+public class DisabledAccountException extends BusinessException {
     public DisabledAccountException(String message) {
         super(message);
     }
@@ -1,6 +1,8 @@
 package org.example.userservice.exception.userException;
 
-public class UnderRequiredAgeException extends RuntimeException {
+import org.example.userservice.exception.BusinessException;
+
+public class UnderRequiredAgeException extends BusinessException {
     public UnderRequiredAgeException(String message) {
         super(message);
     }
@@ -1,5 +1,7 @@
 package org.example.userservice.exception.userException;
 
-public class UserAlreadyExistsException extends RuntimeException {
+import org.example.userservice.exception.BusinessException;
+
+public class UserAlreadyExistsException extends BusinessException {
     public UserAlreadyExistsException(String message) {super(message);}
 }
\ No newline at end of file
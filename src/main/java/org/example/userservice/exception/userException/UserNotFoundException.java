@@ -1,6 +1,8 @@
 package org.example.userservice.exception.userException;
 
-public class UserNotFoundException extends RuntimeException {
+import org.example.userservice.exception.BusinessException;
+
+public class UserNotFoundException extends BusinessException {
     public UserNotFoundException(String message) {
         super(message);
     }
@@ -0,0 +1,9 @@
+package org.example.userservice.exception.userException;
+
+import org.example.userservice.exception.BusinessException;
+
+public class WalletAddressAlreadyInUseException extends BusinessException {
+    public WalletAddressAlreadyInUseException(String message) {
+        super(message);
+    }
+}
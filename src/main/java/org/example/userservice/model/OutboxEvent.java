@@ -0,0 +1,71 @@
+package org.example.userservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.example.userservice.enums.OutboxStatusEnum;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_events_coalesce_key", columnList = "coalesce_key"),
+        @Index(name = "idx_outbox_events_status_next_attempt", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_outbox_events_aggregate_id", columnList = "aggregate_id, id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "aggregate_id", length = 64)
+    private String aggregateId;
+
+    @Column(name = "coalesce_key", length = 128)
+    private String coalesceKey;
+
+    @Column(nullable = false)
+    private String exchange;
+
+    @Column(name = "routing_key", nullable = false)
+    private String routingKey;
+
+    @Column(nullable = false, length = 1_048_576)
+    private byte[] payload;
+
+    @Column(name = "content_type", length = 128)
+    private String contentType;
+
+    @Column(name = "type_id")
+    private String typeId;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16, columnDefinition = "VARCHAR(16) DEFAULT 'PENDING'")
+    @Builder.Default
+    private OutboxStatusEnum status = OutboxStatusEnum.PENDING;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.userservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "processed_events", indexes = @Index(name = "idx_processed_events_processed_at", columnList = "processed_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProcessedEvent {
+    @Id
+    @Column(name = "event_id", length = 128)
+    private String eventId;
+
+    @Column(name = "processed_at", nullable = false)
+    private LocalDateTime processedAt;
+}
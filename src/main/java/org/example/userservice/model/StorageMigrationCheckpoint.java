@@ -0,0 +1,51 @@
+package org.example.userservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "storage_migration_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StorageMigrationCheckpoint {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "last_user_id", nullable = false)
+    @Builder.Default
+    private long lastUserId = 0;
+
+    @Column(name = "migrated_users", nullable = false)
+    @Builder.Default
+    private long migratedUsers = 0;
+
+    @Column(name = "migrated_files", nullable = false)
+    @Builder.Default
+    private long migratedFiles = 0;
+
+    @Column(name = "failed_files", nullable = false)
+    @Builder.Default
+    private long failedFiles = 0;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    // Instance running the migration; other instances refuse to start until the lease expires
+    @Column(name = "owner", length = 64)
+    private String owner;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+}
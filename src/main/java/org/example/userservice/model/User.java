@@ -10,7 +10,10 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "users")
+// The unique index on wallet_address is created by WalletLookupService once stored addresses are normalized
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_change_txid_id", columnList = "change_txid, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -45,6 +48,12 @@ public class User implements Serializable {
     @Column(name = "profile_picture")
     private String profilePicture;
 
+    @Column(name = "profile_picture_thumb")
+    private String profilePictureThumb;
+
+    @Column(name = "profile_picture_medium")
+    private String profilePictureMedium;
+
     @Column(name = "verification_code")
     private String verificationCode;
 
@@ -64,16 +73,43 @@ public class User implements Serializable {
 
     private Double rating;
 
+    @Column(name = "rating_count", nullable = false, columnDefinition = "INTEGER DEFAULT 0")
+    @Builder.Default
+    private Integer ratingCount = 0;
+
     @Column(name = "score", nullable = false, columnDefinition = "INTEGER DEFAULT 100")
     @Builder.Default
     private Integer score = 100;
 
+    @Column(name = "profile_version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    @Builder.Default
+    private Long profileVersion = 0L;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Stamped by a database trigger with the id of the writing transaction; read only by the change feed
+    @Column(name = "change_txid", insertable = false, updatable = false)
+    private Long changeTxid;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public void setRoles(Set<UserRoleEnum> roles) {
+        this.roles = roles;
+        // A change to the roles collection alone does not make the row dirty, so mark it for the change feed here
+        this.updatedAt = LocalDateTime.now();
     }
 
     public String getFullName() {
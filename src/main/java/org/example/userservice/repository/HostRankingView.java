@@ -0,0 +1,9 @@
+package org.example.userservice.repository;
+
+public interface HostRankingView {
+    Long getId();
+
+    Double getRating();
+
+    Integer getScore();
+}
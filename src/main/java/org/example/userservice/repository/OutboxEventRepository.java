@@ -0,0 +1,41 @@
+package org.example.userservice.repository;
+
+import jakarta.persistence.LockModeType;
+import org.example.userservice.enums.OutboxStatusEnum;
+import org.example.userservice.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    /**
+     * Oldest pending events that are due, at most one per aggregate, locked
+     * so that relays on other instances wait for this batch instead of
+     * publishing the same events out of order. An event is left out while an
+     * earlier event of its aggregate is due or waiting for a retry, so a
+     * later event is only sent once the earlier one has been confirmed. An
+     * earlier event that is still inside its coalescing window does not hold
+     * it back.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status = org.example.userservice.enums.OutboxStatusEnum.PENDING "
+            + "AND e.nextAttemptAt <= :now AND NOT EXISTS (SELECT 1 FROM OutboxEvent p "
+            + "WHERE p.aggregateId = e.aggregateId AND p.id < e.id "
+            + "AND p.status = org.example.userservice.enums.OutboxStatusEnum.PENDING "
+            + "AND (p.attempts > 0 OR p.nextAttemptAt <= :now)) ORDER BY e.id")
+    List<OutboxEvent> findDueForUpdate(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<OutboxEvent> findFirstByCoalesceKeyAndStatusOrderByIdDesc(String coalesceKey, OutboxStatusEnum status);
+
+    long countByStatus(OutboxStatusEnum status);
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e WHERE e.status = :status")
+    LocalDateTime findOldestCreatedAt(@Param("status") OutboxStatusEnum status);
+}
@@ -0,0 +1,22 @@
+package org.example.userservice.repository;
+
+import org.example.userservice.model.ProcessedEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Set;
+
+public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent, String> {
+    @Query("SELECT p.eventId FROM ProcessedEvent p WHERE p.eventId IN :eventIds")
+    Set<String> findExistingEventIds(@Param("eventIds") Collection<String> eventIds);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ProcessedEvent p WHERE p.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
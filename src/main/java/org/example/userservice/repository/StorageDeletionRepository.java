@@ -0,0 +1,41 @@
+package org.example.userservice.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.example.userservice.model.StorageDeletion;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface StorageDeletionRepository extends JpaRepository<StorageDeletion, Long> {
+    /**
+     * Due deletions, locked until the collecting transaction ends. Rows
+     * locked by another collector or by an upload reusing the file are
+     * skipped rather than waited for.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT d FROM StorageDeletion d WHERE d.dueAt <= :now ORDER BY d.dueAt")
+    List<StorageDeletion> findDueForUpdate(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Moves pending deletions of the given files to no earlier than
+     * {@code dueAt}. The row locks wait for a collector that is deleting
+     * one of the files right now.
+     */
+    @Modifying
+    @Query("UPDATE StorageDeletion d SET d.dueAt = :dueAt WHERE d.url IN :urls AND d.dueAt < :dueAt")
+    int postpone(@Param("urls") Collection<String> urls, @Param("dueAt") LocalDateTime dueAt);
+
+    @Query("SELECT MIN(d.createdAt) FROM StorageDeletion d")
+    LocalDateTime findOldestCreatedAt();
+}
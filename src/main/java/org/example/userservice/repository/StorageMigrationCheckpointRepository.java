@@ -0,0 +1,20 @@
+package org.example.userservice.repository;
+
+import jakarta.persistence.LockModeType;
+import org.example.userservice.model.StorageMigrationCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface StorageMigrationCheckpointRepository extends JpaRepository<StorageMigrationCheckpoint, String> {
+    /**
+     * The checkpoint, locked so that instances claiming or advancing the
+     * migration take turns.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM StorageMigrationCheckpoint c WHERE c.name = :name")
+    Optional<StorageMigrationCheckpoint> findByNameForUpdate(@Param("name") String name);
+}
@@ -0,0 +1,25 @@
+package org.example.userservice.repository;
+
+import java.time.LocalDateTime;
+
+public interface UserChangeView {
+    Long getId();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getWalletAddress();
+
+    String getProfilePicture();
+
+    boolean isEnabled();
+
+    Double getRating();
+
+    Integer getScore();
+
+    LocalDateTime getUpdatedAt();
+
+    Long getChangeTxid();
+}
@@ -0,0 +1,11 @@
+package org.example.userservice.repository;
+
+public interface UserPictureView {
+    Long getId();
+
+    String getProfilePicture();
+
+    String getProfilePictureThumb();
+
+    String getProfilePictureMedium();
+}
@@ -1,12 +1,147 @@
 package org.example.userservice.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import org.example.userservice.enums.UserRoleEnum;
 import org.example.userservice.model.User;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(@NotBlank(message = "Email is required") @Email(message = "Email should be valid") String email);
+
+    long countByEnabledTrue();
+
+    long countByVerificationCodeIsNotNull();
+
+    @Query("SELECT r, COUNT(u) FROM User u JOIN u.roles r GROUP BY r")
+    List<Object[]> countUsersByRole();
+
+    /** Signups per calendar day since the given time, as (LocalDate, Long) rows. */
+    @Query("SELECT CAST(u.createdAt AS LocalDate), COUNT(u) FROM User u WHERE u.createdAt >= :since "
+            + "GROUP BY CAST(u.createdAt AS LocalDate)")
+    List<Object[]> countSignupsPerDaySince(@Param("since") LocalDateTime since);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.id AS id, u.rating AS rating, u.score AS score FROM User u JOIN u.roles r "
+            + "WHERE r = :role AND u.enabled = true")
+    Stream<HostRankingView> streamRankingByRole(@Param("role") UserRoleEnum role);
+
+    @Query("SELECT u.id AS id, u.rating AS rating, u.score AS score FROM User u JOIN u.roles r "
+            + "WHERE r = :role AND u.enabled = true AND u.id IN :ids")
+    List<HostRankingView> findRankingByRoleAndIdIn(@Param("role") UserRoleEnum role, @Param("ids") Collection<Long> ids);
+
+    boolean existsByWalletAddressAndIdNot(String walletAddress, Long id);
+
+    @Query("SELECT u.id AS id, u.walletAddress AS walletAddress FROM User u WHERE u.walletAddress IN :addresses")
+    List<WalletOwnerView> findWalletOwners(@Param("addresses") Collection<String> addresses);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.walletAddress = NULL, u.updatedAt = :now WHERE TRIM(u.walletAddress) = ''")
+    int clearBlankWalletAddresses(@Param("now") LocalDateTime now);
+
+    /**
+     * Users whose wallet address, once normalized, is shared with another
+     * user, with the normalized address, ordered by address and id.
+     */
+    @Query("SELECT u.id AS id, LOWER(TRIM(u.walletAddress)) AS walletAddress FROM User u "
+            + "WHERE LOWER(TRIM(u.walletAddress)) IN (SELECT LOWER(TRIM(o.walletAddress)) FROM User o "
+            + "WHERE o.walletAddress IS NOT NULL GROUP BY LOWER(TRIM(o.walletAddress)) HAVING COUNT(o) > 1) "
+            + "ORDER BY LOWER(TRIM(u.walletAddress)), u.id")
+    List<WalletOwnerView> findConflictingWalletOwners();
+
+    /**
+     * Normalizes stored addresses, except those another user's address
+     * normalizes to as well; they stay as they are until the conflict is
+     * resolved.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.walletAddress = LOWER(TRIM(u.walletAddress)), u.updatedAt = :now "
+            + "WHERE u.walletAddress <> LOWER(TRIM(u.walletAddress)) AND NOT EXISTS "
+            + "(SELECT o.id FROM User o WHERE o.id <> u.id "
+            + "AND LOWER(TRIM(o.walletAddress)) = LOWER(TRIM(u.walletAddress)))")
+    int normalizeWalletAddresses(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.updatedAt = COALESCE(u.createdAt, :now) WHERE u.updatedAt IS NULL")
+    int backfillUpdatedAt(@Param("now") LocalDateTime now);
+
+    /**
+     * Increments the profile version in the database. The row lock it takes
+     * lasts until the calling transaction ends, so concurrent changes of one
+     * user get consecutive versions in commit order.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE User u SET u.profileVersion = COALESCE(u.profileVersion, 0) + 1 WHERE u.id = :id")
+    int incrementProfileVersion(@Param("id") Long id);
+
+    @Query("SELECT u.profileVersion FROM User u WHERE u.id = :id")
+    Long findProfileVersion(@Param("id") Long id);
+
+    /**
+     * Keyset page of the change feed: rows after the (changeTxid, id) cursor
+     * written by transactions older than {@code upTo}, in the order of the
+     * (change_txid, id) index.
+     */
+    @Query("SELECT u.id AS id, u.firstName AS firstName, u.lastName AS lastName, "
+            + "u.walletAddress AS walletAddress, u.profilePicture AS profilePicture, u.enabled AS enabled, "
+            + "u.rating AS rating, u.score AS score, u.updatedAt AS updatedAt, u.changeTxid AS changeTxid "
+            + "FROM User u WHERE (u.changeTxid > :afterTxid OR (u.changeTxid = :afterTxid AND u.id > :afterId)) "
+            + "AND u.changeTxid < :upTo ORDER BY u.changeTxid, u.id")
+    List<UserChangeView> findChangesAfter(@Param("afterTxid") Long afterTxid,
+                                          @Param("afterId") Long afterId,
+                                          @Param("upTo") Long upTo,
+                                          Pageable pageable);
+
+    /**
+     * The oldest transaction id that may still be running. Every transaction
+     * with a lower id has finished, and no new one can be given a lower id.
+     */
+    @Query(value = "SELECT txid_snapshot_xmin(txid_current_snapshot())", nativeQuery = true)
+    Long findOldestRunningTxid();
+
+    /**
+     * Users with at least one picture URL under the given prefix, in id
+     * order after the given id.
+     */
+    @Query("SELECT u.id AS id, u.profilePicture AS profilePicture, u.profilePictureThumb AS profilePictureThumb, "
+            + "u.profilePictureMedium AS profilePictureMedium FROM User u WHERE u.id > :afterId "
+            + "AND (u.profilePicture LIKE CONCAT(:prefix, '%') OR u.profilePictureThumb LIKE CONCAT(:prefix, '%') "
+            + "OR u.profilePictureMedium LIKE CONCAT(:prefix, '%')) ORDER BY u.id")
+    List<UserPictureView> findPicturesWithPrefix(@Param("prefix") String prefix, @Param("afterId") Long afterId,
+                                                 Pageable pageable);
+
+    /**
+     * Users locked for a read-modify-write that must not interleave with
+     * their own profile changes.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id IN :ids")
+    List<User> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT u.profilePicture, u.profilePictureThumb, u.profilePictureMedium FROM User u "
+            + "WHERE u.profilePicture IN :urls OR u.profilePictureThumb IN :urls OR u.profilePictureMedium IN :urls")
+    List<Object[]> findPicturesReferencing(@Param("urls") Collection<String> urls);
+
+    @Query("SELECT u.id, r FROM User u JOIN u.roles r WHERE u.id IN :ids")
+    List<Object[]> findRolesByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,74 @@
+package org.example.userservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set-based writes for the review consumer. Each call is a single JDBC batch,
+ * so a window of events costs one round trip per statement type.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserReviewBatchRepository {
+    private static final String INSERT_PROCESSED_EVENT =
+            "INSERT INTO processed_events (event_id, processed_at) VALUES (?, ?)";
+
+    private static final String APPLY_SCORE_DELTA =
+            "UPDATE users SET score = score + ?, updated_at = ? WHERE id = ?";
+
+    /**
+     * Ratings written before rating_count existed have a count of 0; such a
+     * rating counts as one review instead of being overwritten.
+     */
+    private static final String STORED_RATING_COUNT =
+            "(CASE WHEN rating IS NOT NULL AND rating_count = 0 THEN 1 ELSE rating_count END)";
+
+    private static final String APPLY_REVIEW_DELTA =
+            "UPDATE users SET score = score + ?, "
+                    + "rating = (COALESCE(rating, 0) * " + STORED_RATING_COUNT + " + ?) / (" + STORED_RATING_COUNT + " + ?), "
+                    + "rating_count = " + STORED_RATING_COUNT + " + ?, updated_at = ? "
+                    + "WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertProcessedEvents(Collection<String> eventIds, LocalDateTime processedAt) {
+        Timestamp timestamp = Timestamp.valueOf(processedAt);
+        jdbcTemplate.batchUpdate(INSERT_PROCESSED_EVENT, eventIds, eventIds.size(), (ps, eventId) -> {
+            ps.setString(1, eventId);
+            ps.setTimestamp(2, timestamp);
+        });
+    }
+
+    public void applyDeltas(List<UserReviewDelta> deltas, LocalDateTime updatedAt) {
+        Timestamp timestamp = Timestamp.valueOf(updatedAt);
+        List<UserReviewDelta> scoreOnly = deltas.stream().filter(d -> d.ratingCount() == 0).toList();
+        List<UserReviewDelta> withRatings = deltas.stream().filter(d -> d.ratingCount() > 0).toList();
+
+        if (!scoreOnly.isEmpty()) {
+            jdbcTemplate.batchUpdate(APPLY_SCORE_DELTA, scoreOnly, scoreOnly.size(), (ps, delta) -> {
+                ps.setInt(1, delta.scoreDelta());
+                ps.setTimestamp(2, timestamp);
+                ps.setLong(3, delta.userId());
+            });
+        }
+        if (!withRatings.isEmpty()) {
+            jdbcTemplate.batchUpdate(APPLY_REVIEW_DELTA, withRatings, withRatings.size(), (ps, delta) -> {
+                ps.setInt(1, delta.scoreDelta());
+                ps.setDouble(2, delta.ratingSum());
+                ps.setInt(3, delta.ratingCount());
+                ps.setInt(4, delta.ratingCount());
+                ps.setTimestamp(5, timestamp);
+                ps.setLong(6, delta.userId());
+            });
+        }
+    }
+
+    public record UserReviewDelta(long userId, int scoreDelta, double ratingSum, int ratingCount) {
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.userservice.repository;
+
+public interface WalletOwnerView {
+    Long getId();
+
+    String getWalletAddress();
+}
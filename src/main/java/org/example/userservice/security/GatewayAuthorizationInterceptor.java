@@ -0,0 +1,76 @@
+package org.example.userservice.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.userservice.exception.authException.AccessDeniedException;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parses the gateway headers into a {@link GatewayPrincipal} for handlers
+ * that read it or carry {@link RequiresRole}, and enforces the role rule
+ * before the handler runs. Each handler's annotations are turned into a
+ * role mask the first time it is dispatched to, so checking a request is a
+ * single bitwise test.
+ */
+public class GatewayAuthorizationInterceptor implements HandlerInterceptor {
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String ROLES_HEADER = "X-User-Roles";
+    static final String PRINCIPAL_ATTRIBUTE = GatewayPrincipal.class.getName();
+
+    private static final Policy OPEN = new Policy(0, null, false);
+
+    private final Map<Method, Policy> policies = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        Policy policy = policies.computeIfAbsent(handlerMethod.getMethod(), method -> compile(handlerMethod));
+        if (!policy.readsPrincipal()) {
+            return true;
+        }
+        GatewayPrincipal principal = GatewayPrincipal.fromHeaders(
+                request.getHeader(USER_ID_HEADER), request.getHeader(ROLES_HEADER));
+        request.setAttribute(PRINCIPAL_ATTRIBUTE, principal);
+        if (policy.roleMask() != 0 && !principal.hasAnyRole(policy.roleMask()) && !isSelf(request, policy, principal)) {
+            throw new AccessDeniedException("You are not allowed to access this resource");
+        }
+        return true;
+    }
+
+    private static Policy compile(HandlerMethod handlerMethod) {
+        RequiresRole rule = handlerMethod.getMethodAnnotation(RequiresRole.class);
+        boolean takesPrincipal = false;
+        for (var parameter : handlerMethod.getMethodParameters()) {
+            takesPrincipal |= parameter.getParameterType() == GatewayPrincipal.class;
+        }
+        if (rule == null) {
+            return takesPrincipal ? new Policy(0, null, true) : OPEN;
+        }
+        return new Policy(GatewayPrincipal.mask(rule.value()), rule.orSelf().isEmpty() ? null : rule.orSelf(), true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean isSelf(HttpServletRequest request, Policy policy, GatewayPrincipal principal) {
+        if (policy.selfVariable() == null || principal.userId() == null) {
+            return false;
+        }
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String value = variables != null ? variables.get(policy.selfVariable()) : null;
+        try {
+            return value != null && Long.parseLong(value) == principal.userId();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private record Policy(int roleMask, String selfVariable, boolean readsPrincipal) {
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.userservice.security;
+
+import org.example.userservice.enums.UserRoleEnum;
+import org.example.userservice.exception.authException.MalformedGatewayHeaderException;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The caller as identified by the API gateway, parsed once per request.
+ * Roles are kept as a bitset indexed by {@link UserRoleEnum#ordinal()}.
+ */
+public record GatewayPrincipal(Long userId, int roles) {
+
+    public static final GatewayPrincipal ANONYMOUS = new GatewayPrincipal(null, 0);
+    private static final Map<String, Integer> ROLE_BITS = new HashMap<>();
+
+    static {
+        for (UserRoleEnum role : UserRoleEnum.values()) {
+            ROLE_BITS.put(role.name(), 1 << role.ordinal());
+            ROLE_BITS.put("ROLE_" + role.name(), 1 << role.ordinal());
+        }
+    }
+
+    /**
+     * Parses the {@code X-User-Id} and {@code X-User-Roles} headers. The
+     * gateway forwards the {@code roles} claim of the token, either joined
+     * ({@code ROLE_ADMIN,ROLE_HOST}) or as the JSON array itself
+     * ({@code ["ROLE_ADMIN","ROLE_HOST"]}); the {@code ROLE_} prefix is
+     * optional. Names this service does not know are ignored, anything that
+     * is not a name is rejected.
+     */
+    public static GatewayPrincipal fromHeaders(String userIdHeader, String rolesHeader) {
+        Long userId = null;
+        if (userIdHeader != null && !userIdHeader.isBlank()) {
+            try {
+                userId = Long.parseLong(userIdHeader.trim());
+            } catch (NumberFormatException e) {
+                userId = -1L;
+            }
+            if (userId <= 0) {
+                throw new MalformedGatewayHeaderException("Invalid X-User-Id header");
+            }
+        }
+        return new GatewayPrincipal(userId, rolesHeader == null ? 0 : parseRoles(rolesHeader));
+    }
+
+    private static int parseRoles(String header) {
+        int roles = 0;
+        int start = -1;
+        for (int i = 0; i <= header.length(); i++) {
+            char c = i < header.length() ? header.charAt(i) : ',';
+            if (Character.isLetter(c) || c == '_') {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (c == ',' || c == '[' || c == ']' || c == '"' || c == '\'' || Character.isWhitespace(c)) {
+                if (start >= 0) {
+                    roles |= ROLE_BITS.getOrDefault(header.substring(start, i).toUpperCase(Locale.ROOT), 0);
+                    start = -1;
+                }
+            } else {
+                throw new MalformedGatewayHeaderException("Invalid X-User-Roles header");
+            }
+        }
+        return roles;
+    }
+
+    public static int mask(UserRoleEnum... roles) {
+        int mask = 0;
+        for (UserRoleEnum role : roles) {
+            mask |= 1 << role.ordinal();
+        }
+        return mask;
+    }
+
+    public boolean hasRole(UserRoleEnum role) {
+        return (roles & (1 << role.ordinal())) != 0;
+    }
+
+    public boolean hasAnyRole(int mask) {
+        return (roles & mask) != 0;
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.userservice.security;
+
+import org.example.userservice.exception.authException.MalformedGatewayHeaderException;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Supplies the {@link GatewayPrincipal} parsed by
+ * {@link GatewayAuthorizationInterceptor} to handlers that declare it.
+ * Such handlers act on the caller's own account, so the user id is required.
+ */
+public class GatewayPrincipalArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.getParameterType() == GatewayPrincipal.class;
+    }
+
+    @Override
+    public GatewayPrincipal resolveArgument(MethodParameter parameter,
+                                            ModelAndViewContainer mavContainer,
+                                            NativeWebRequest webRequest,
+                                            WebDataBinderFactory binderFactory) {
+        GatewayPrincipal principal = (GatewayPrincipal) webRequest.getAttribute(
+                GatewayAuthorizationInterceptor.PRINCIPAL_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (principal == null) {
+            principal = GatewayPrincipal.fromHeaders(
+                    webRequest.getHeader(GatewayAuthorizationInterceptor.USER_ID_HEADER),
+                    webRequest.getHeader(GatewayAuthorizationInterceptor.ROLES_HEADER));
+        }
+        if (principal.userId() == null) {
+            throw new MalformedGatewayHeaderException("Missing X-User-Id header");
+        }
+        return principal;
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.userservice.security;
+
+import org.example.userservice.enums.UserRoleEnum;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Restricts a handler to callers holding any of the given roles. When
+ * {@link #orSelf()} names a path variable, callers whose user id equals its
+ * value are let through as well.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequiresRole {
+
+    UserRoleEnum[] value();
+
+    String orSelf() default "";
+}
@@ -0,0 +1,167 @@
+package org.example.userservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.userservice.dto.responses.AdminDashboardStatsDTO;
+import org.example.userservice.enums.UserRoleEnum;
+import org.example.userservice.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.example.userservice.util.TransactionHooks.afterCommit;
+
+/**
+ * Dashboard counters maintained incrementally by the user mutation paths.
+ * Updates are applied after commit and the whole set is periodically
+ * reconciled against aggregate queries to correct any drift.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AdminStatsService {
+    private final UserRepository userRepository;
+
+    @Value("${app.admin-stats.signup-days:30}")
+    private int signupDays;
+
+    private final AtomicLong totalUsers = new AtomicLong();
+    private final AtomicLong enabledUsers = new AtomicLong();
+    private final AtomicLong unverifiedUsers = new AtomicLong();
+    private final Map<UserRoleEnum, AtomicLong> usersByRole = new EnumMap<>(UserRoleEnum.class);
+    private final Map<LocalDate, AtomicLong> signupsPerDay = new ConcurrentHashMap<>();
+    private volatile LocalDateTime reconciledAt;
+
+    {
+        for (UserRoleEnum role : UserRoleEnum.values()) {
+            usersByRole.put(role, new AtomicLong());
+        }
+    }
+
+    public AdminDashboardStatsDTO getStats() {
+        Map<UserRoleEnum, Long> roles = new EnumMap<>(UserRoleEnum.class);
+        usersByRole.forEach((role, count) -> roles.put(role, count.get()));
+
+        LocalDate oldest = LocalDate.now().minusDays(signupDays - 1L);
+        Map<LocalDate, Long> signups = new TreeMap<>();
+        signupsPerDay.forEach((day, count) -> {
+            if (!day.isBefore(oldest)) {
+                signups.put(day, count.get());
+            }
+        });
+
+        long total = totalUsers.get();
+        long enabled = enabledUsers.get();
+        return AdminDashboardStatsDTO.builder()
+                .totalUsers(total)
+                .enabledUsers(enabled)
+                .disabledUsers(total - enabled)
+                .unverifiedUsers(unverifiedUsers.get())
+                .usersByRole(roles)
+                .signupsPerDay(signups)
+                .reconciledAt(reconciledAt)
+                .build();
+    }
+
+    public void onSignup(Set<UserRoleEnum> roles, boolean enabled, LocalDateTime createdAt) {
+        afterCommit(() -> {
+            totalUsers.incrementAndGet();
+            if (enabled) {
+                enabledUsers.incrementAndGet();
+            }
+            unverifiedUsers.incrementAndGet();
+            roles.forEach(role -> usersByRole.get(role).incrementAndGet());
+            LocalDate day = createdAt != null ? createdAt.toLocalDate() : LocalDate.now();
+            signupsPerDay.computeIfAbsent(day, d -> new AtomicLong()).incrementAndGet();
+        });
+    }
+
+    public void onVerificationCodeIssued(boolean hadPendingCode) {
+        if (!hadPendingCode) {
+            afterCommit(unverifiedUsers::incrementAndGet);
+        }
+    }
+
+    public void onVerified(boolean wasEnabled) {
+        afterCommit(() -> {
+            unverifiedUsers.decrementAndGet();
+            if (!wasEnabled) {
+                enabledUsers.incrementAndGet();
+            }
+        });
+    }
+
+    public void onEnabledChanged(boolean wasEnabled, boolean enabled) {
+        if (wasEnabled == enabled) {
+            return;
+        }
+        afterCommit(() -> {
+            if (enabled) {
+                enabledUsers.incrementAndGet();
+            } else {
+                enabledUsers.decrementAndGet();
+            }
+        });
+    }
+
+    public void onRolesChanged(Set<UserRoleEnum> oldRoles, Set<UserRoleEnum> newRoles) {
+        Set<UserRoleEnum> before = Set.copyOf(oldRoles);
+        Set<UserRoleEnum> after = Set.copyOf(newRoles);
+        if (before.equals(after)) {
+            return;
+        }
+        afterCommit(() -> {
+            before.stream().filter(role -> !after.contains(role))
+                    .forEach(role -> usersByRole.get(role).decrementAndGet());
+            after.stream().filter(role -> !before.contains(role))
+                    .forEach(role -> usersByRole.get(role).incrementAndGet());
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${app.admin-stats.reconcile-interval-ms:300000}",
+            initialDelayString = "${app.admin-stats.reconcile-interval-ms:300000}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        try {
+            totalUsers.set(userRepository.count());
+            enabledUsers.set(userRepository.countByEnabledTrue());
+            unverifiedUsers.set(userRepository.countByVerificationCodeIsNotNull());
+
+            Map<UserRoleEnum, Long> roleCounts = new EnumMap<>(UserRoleEnum.class);
+            for (Object[] row : userRepository.countUsersByRole()) {
+                roleCounts.put((UserRoleEnum) row[0], (Long) row[1]);
+            }
+            usersByRole.forEach((role, count) -> count.set(roleCounts.getOrDefault(role, 0L)));
+
+            LocalDate oldest = LocalDate.now().minusDays(signupDays - 1L);
+            Map<LocalDate, Long> signups = new HashMap<>();
+            for (Object[] row : userRepository.countSignupsPerDaySince(oldest.atStartOfDay())) {
+                signups.put((LocalDate) row[0], (Long) row[1]);
+            }
+            signupsPerDay.keySet().removeIf(day -> day.isBefore(oldest) || !signups.containsKey(day));
+            signups.forEach((day, count) -> signupsPerDay.computeIfAbsent(day, d -> new AtomicLong()).set(count));
+
+            reconciledAt = LocalDateTime.now();
+        } catch (Exception e) {
+            log.error("Failed to reconcile admin dashboard statistics: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -8,6 +8,7 @@ import org.example.userservice.dto.requests.ResetPasswordRequestDTO;
 import org.example.userservice.dto.requests.VerifyUserRequestDTO;
 import org.example.userservice.dto.responses.LoginUserResponseDTO;
 import org.example.userservice.enums.UserRoleEnum;
+import org.example.userservice.event.UserProfileChangedEvent;
 import org.example.userservice.exception.authException.*;
 import org.example.userservice.exception.passwordException.PasswordResetTokenNotFoundException;
 import org.example.userservice.exception.passwordException.UsedPasswordResetTokenException;
@@ -21,6 +22,7 @@ import org.example.userservice.service.serviceInterfaces.IAuthenticationService;
 import org.example.userservice.service.serviceInterfaces.IEmailService;
 import org.example.userservice.util.HashingUtil;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -48,6 +50,9 @@ public class AuthenticationService implements IAuthenticationService {
     private final IEmailService emailService;
     private final JWTService jWTService;
     private final HashingUtil hashingUtil;
+    private final AdminStatsService adminStatsService;
+    private final HostRankingService hostRankingService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public void signup(RegisterUserRequestDTO input) {
@@ -60,24 +65,19 @@ public class AuthenticationService implements IAuthenticationService {
         }
 
         User savedUser = userRepository.save(user);
+        adminStatsService.onSignup(savedUser.getRoles(), savedUser.isEnabled(), savedUser.getCreatedAt());
 
-        try {
-            emailService.sendWelcomeEmail(
-                    savedUser.getId(),
-                    savedUser.getFullName(),
-                    savedUser.getEmail());
-        } catch (Exception e) {
-        }
+        emailService.sendWelcomeEmail(
+                savedUser.getId(),
+                savedUser.getFullName(),
+                savedUser.getEmail());
 
-        try {
-            emailService.sendVerificationEmail(
-                    savedUser.getId(),
-                    savedUser.getEmail(),
-                    savedUser.getFullName(),
-                    savedUser.getVerificationCode(),
-                    savedUser.getVerificationCodeExpiresAt());
-        } catch (Exception e) {
-        }
+        emailService.sendVerificationEmail(
+                savedUser.getId(),
+                savedUser.getEmail(),
+                savedUser.getFullName(),
+                savedUser.getVerificationCode(),
+                savedUser.getVerificationCodeExpiresAt());
     }
 
     public LoginUserResponseDTO login(LoginUserRequestDTO input) {
@@ -112,10 +112,16 @@ public class AuthenticationService implements IAuthenticationService {
             throw new WrongVerificationCodeException("Wrong verification code!");
         }
 
+        boolean wasEnabled = user.isEnabled();
         user.setEnabled(true);
         user.setVerificationCode(null);
         user.setVerificationCodeExpiresAt(null);
         userRepository.save(user);
+        adminStatsService.onVerified(wasEnabled);
+        hostRankingService.onUserChanged(user);
+        if (!wasEnabled) {
+            eventPublisher.publishEvent(new UserProfileChangedEvent(user.getId()));
+        }
     }
 
     @Transactional
@@ -127,6 +133,7 @@ public class AuthenticationService implements IAuthenticationService {
             throw new AlreadyVerifiedException("User is already verified");
         }
 
+        boolean hadPendingCode = user.getVerificationCode() != null;
         user.setVerificationCode(generateVerificationCode());
         user.setVerificationCodeExpiresAt(LocalDateTime.now().plusMinutes(verificationCodeExpiryMinutes));
 
@@ -138,7 +145,7 @@ public class AuthenticationService implements IAuthenticationService {
                 user.getVerificationCodeExpiresAt());
 
         userRepository.save(user);
-
+        adminStatsService.onVerificationCodeIssued(hadPendingCode);
     }
 
     @Transactional
@@ -0,0 +1,217 @@
+package org.example.userservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.userservice.dto.responses.HostRankingDTO;
+import org.example.userservice.enums.UserRoleEnum;
+import org.example.userservice.exception.userException.UserNotFoundException;
+import org.example.userservice.model.User;
+import org.example.userservice.repository.HostRankingView;
+import org.example.userservice.repository.UserRepository;
+import org.example.userservice.util.OrderStatisticTree;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import static org.example.userservice.util.TransactionHooks.afterCommit;
+
+/**
+ * In-memory ranking of enabled hosts by rating, then score. Built at
+ * startup and kept current by the code paths that change rating, score,
+ * roles or the enabled flag. Changes made through other instances never
+ * reach this one, so the index is also rebuilt periodically; the rebuild
+ * reads outside the lock and replays the changes made meanwhile.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HostRankingService {
+    private static final int MAX_LIMIT = 100;
+
+    private static final Comparator<HostRankKey> RANKING_ORDER = Comparator
+            .comparingDouble(HostRankKey::sortRating).reversed()
+            .thenComparing(Comparator.comparingInt(HostRankKey::score).reversed())
+            .thenComparingLong(HostRankKey::userId);
+
+    private final UserRepository userRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private OrderStatisticTree<HostRankKey> index = new OrderStatisticTree<>(RANKING_ORDER);
+    private Map<Long, HostRankKey> keysByUserId = new HashMap<>();
+    // Changes applied while a rebuild reads the table, null when none runs; a null value removes the user
+    private Map<Long, HostRankKey> changedDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.host-ranking.rebuild-interval-ms:600000}",
+            initialDelayString = "${app.host-ranking.rebuild-interval-ms:600000}")
+    @Transactional(readOnly = true)
+    public synchronized void buildIndex() {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try (Stream<HostRankingView> hosts = userRepository.streamRankingByRole(UserRoleEnum.HOST)) {
+            OrderStatisticTree<HostRankKey> rebuilt = new OrderStatisticTree<>(RANKING_ORDER);
+            Map<Long, HostRankKey> rebuiltKeys = new HashMap<>();
+            hosts.forEach(host -> {
+                HostRankKey key = toKey(host);
+                if (rebuiltKeys.putIfAbsent(key.userId(), key) == null) {
+                    rebuilt.add(key);
+                }
+            });
+
+            lock.writeLock().lock();
+            try {
+                index = rebuilt;
+                keysByUserId = rebuiltKeys;
+                changedDuringRebuild.forEach(this::replace);
+                log.info("Host ranking index built with {} hosts", index.size());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (Exception e) {
+            log.error("Failed to build the host ranking index: {}", e.getMessage(), e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public List<HostRankingDTO> topHosts(int limit) {
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<HostRankKey> keys;
+        lock.readLock().lock();
+        try {
+            keys = index.first(boundedLimit);
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<HostRankingDTO> result = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            result.add(toDto(keys.get(i), i + 1L));
+        }
+        return result;
+    }
+
+    public HostRankingDTO rankOf(Long userId) {
+        lock.readLock().lock();
+        try {
+            HostRankKey key = keysByUserId.get(userId);
+            if (key == null) {
+                throw new UserNotFoundException("Host not found with id: " + userId);
+            }
+            return toDto(key, index.rank(key) + 1L);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Re-indexes the user after the current transaction commits, based on the
+     * state of the given entity.
+     */
+    public void onUserChanged(User user) {
+        boolean ranked = user.isEnabled() && user.getRoles() != null && user.getRoles().contains(UserRoleEnum.HOST);
+        HostRankKey key = ranked ? new HostRankKey(user.getId(), user.getRating(), scoreOf(user.getScore())) : null;
+        Long userId = user.getId();
+        afterCommit(() -> apply(userId, key));
+    }
+
+    /**
+     * Reloads ranking data for users whose rating or score was changed by a
+     * bulk update, which bypasses the entities.
+     */
+    public void onRatingsChanged(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        Map<Long, HostRankKey> keys = new HashMap<>();
+        for (Long userId : userIds) {
+            keys.put(userId, null);
+        }
+        for (HostRankingView view : userRepository.findRankingByRoleAndIdIn(UserRoleEnum.HOST, userIds)) {
+            keys.put(view.getId(), toKey(view));
+        }
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                keys.forEach(this::record);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void apply(Long userId, HostRankKey key) {
+        lock.writeLock().lock();
+        try {
+            record(userId, key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void record(Long userId, HostRankKey key) {
+        replace(userId, key);
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.put(userId, key);
+        }
+    }
+
+    private void replace(Long userId, HostRankKey key) {
+        removeUser(userId);
+        if (key != null) {
+            index.add(key);
+            keysByUserId.put(userId, key);
+        }
+    }
+
+    private void removeUser(Long userId) {
+        HostRankKey existing = keysByUserId.remove(userId);
+        if (existing != null) {
+            index.remove(existing);
+        }
+    }
+
+    private HostRankKey toKey(HostRankingView view) {
+        return new HostRankKey(view.getId(), view.getRating(), scoreOf(view.getScore()));
+    }
+
+    private HostRankingDTO toDto(HostRankKey key, long rank) {
+        return HostRankingDTO.builder()
+                .userId(key.userId())
+                .rank(rank)
+                .rating(key.rating())
+                .score(key.score())
+                .build();
+    }
+
+    private static int scoreOf(Integer score) {
+        return score != null ? score : 100;
+    }
+
+    private record HostRankKey(long userId, Double rating, int score) {
+        double sortRating() {
+            return rating != null ? rating : Double.NEGATIVE_INFINITY;
+        }
+    }
+}
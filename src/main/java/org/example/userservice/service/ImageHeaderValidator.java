@@ -0,0 +1,246 @@
+package org.example.userservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.userservice.enums.ImageFormatEnum;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Identifies an upload from its leading bytes and reads its dimensions
+ * from the JPEG frame header, the PNG IHDR chunk or the WebP bitstream
+ * header, without decoding any pixels. Only as much of the stream as the
+ * header needs is read, and the stream is reset afterwards, so the same
+ * stream can be handed on to the decoder.
+ */
+@Service
+public class ImageHeaderValidator {
+    /** Headers must fit in this many bytes; large EXIF or ICC segments precede the JPEG frame header. */
+    public static final int MAX_HEADER_BYTES = 256 * 1024;
+
+    private static final Set<ImageFormatEnum> ACCEPTED_FORMATS = Set.of(ImageFormatEnum.JPEG, ImageFormatEnum.PNG);
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.image.max-pixels:40000000}")
+    private long maxPixels;
+
+    public ImageHeaderValidator(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Checks that the stream starts with a supported image within the pixel
+     * limit and rewinds it. The stream must support mark and reset.
+     *
+     * @throws IllegalArgumentException if the content is not an acceptable image
+     */
+    public ImageHeader validate(InputStream content) {
+        if (!content.markSupported()) {
+            throw new IllegalStateException("Image validation needs a stream that supports mark and reset");
+        }
+        ImageHeader header = null;
+        content.mark(MAX_HEADER_BYTES);
+        try {
+            header = readHeader(content);
+            if (!ACCEPTED_FORMATS.contains(header.format())) {
+                throw new IllegalArgumentException("Only JPEG and PNG images are supported");
+            }
+            if (header.width() <= 0 || header.height() <= 0
+                    || (long) header.width() * header.height() > maxPixels) {
+                throw new IllegalArgumentException("Image exceeds the maximum of " + maxPixels + " pixels");
+            }
+            content.reset();
+            count(header.format(), "accepted");
+            return header;
+        } catch (IOException e) {
+            count(null, "rejected");
+            throw new IllegalArgumentException("File is not a readable image", e);
+        } catch (IllegalArgumentException e) {
+            count(header != null ? header.format() : null, "rejected");
+            throw e;
+        }
+    }
+
+    /** Identifies the image without checking its format or size against the limits. */
+    ImageHeader readHeader(InputStream content) throws IOException {
+        return readHeader(new HeaderReader(content));
+    }
+
+    private ImageHeader readHeader(HeaderReader in) throws IOException {
+        int first = in.readUnsignedByte();
+        int second = in.readUnsignedByte();
+        if (first == 0xFF && second == 0xD8) {
+            return readJpeg(in);
+        }
+        if (first == (PNG_SIGNATURE[0] & 0xFF) && second == PNG_SIGNATURE[1]) {
+            return readPng(in);
+        }
+        if (first == 'R' && second == 'I') {
+            return readWebp(in);
+        }
+        throw new IllegalArgumentException("File is not a JPEG or PNG image");
+    }
+
+    /** Walks the marker segments up to the first start-of-frame marker. */
+    private ImageHeader readJpeg(HeaderReader in) throws IOException {
+        while (true) {
+            if (in.readUnsignedByte() != 0xFF) {
+                throw new IllegalArgumentException("Corrupt JPEG marker");
+            }
+            int marker = in.readUnsignedByte();
+            while (marker == 0xFF) {
+                marker = in.readUnsignedByte();
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                continue;
+            }
+            if (marker == 0xD9 || marker == 0xDA) {
+                throw new IllegalArgumentException("JPEG image has no frame header");
+            }
+            int length = in.readUnsignedShort();
+            if (length < 2) {
+                throw new IllegalArgumentException("Corrupt JPEG segment");
+            }
+            if (isStartOfFrame(marker)) {
+                in.skip(1);
+                int height = in.readUnsignedShort();
+                int width = in.readUnsignedShort();
+                return new ImageHeader(ImageFormatEnum.JPEG, width, height);
+            }
+            in.skip(length - 2);
+        }
+    }
+
+    private ImageHeader readPng(HeaderReader in) throws IOException {
+        for (int i = 2; i < PNG_SIGNATURE.length; i++) {
+            if (in.readUnsignedByte() != (PNG_SIGNATURE[i] & 0xFF)) {
+                throw new IllegalArgumentException("Corrupt PNG signature");
+            }
+        }
+        if (in.readInt() != 13 || !"IHDR".equals(in.readFourCc())) {
+            throw new IllegalArgumentException("PNG image does not start with an IHDR chunk");
+        }
+        int width = in.readInt();
+        int height = in.readInt();
+        return new ImageHeader(ImageFormatEnum.PNG, width, height);
+    }
+
+    private ImageHeader readWebp(HeaderReader in) throws IOException {
+        if (in.readUnsignedByte() != 'F' || in.readUnsignedByte() != 'F') {
+            throw new IllegalArgumentException("File is not a JPEG or PNG image");
+        }
+        in.skip(4);
+        if (!"WEBP".equals(in.readFourCc())) {
+            throw new IllegalArgumentException("File is not a JPEG or PNG image");
+        }
+        String chunk = in.readFourCc();
+        in.skip(4);
+        switch (chunk) {
+            case "VP8X" -> {
+                in.skip(4);
+                return new ImageHeader(ImageFormatEnum.WEBP, in.readUnsignedInt24Le() + 1, in.readUnsignedInt24Le() + 1);
+            }
+            case "VP8 " -> {
+                in.skip(3);
+                if (in.readUnsignedByte() != 0x9D || in.readUnsignedByte() != 0x01 || in.readUnsignedByte() != 0x2A) {
+                    throw new IllegalArgumentException("Corrupt WebP frame header");
+                }
+                int width = in.readUnsignedShortLe() & 0x3FFF;
+                int height = in.readUnsignedShortLe() & 0x3FFF;
+                return new ImageHeader(ImageFormatEnum.WEBP, width, height);
+            }
+            case "VP8L" -> {
+                if (in.readUnsignedByte() != 0x2F) {
+                    throw new IllegalArgumentException("Corrupt WebP lossless header");
+                }
+                long bits = in.readUnsignedShortLe() | ((long) in.readUnsignedShortLe() << 16);
+                return new ImageHeader(ImageFormatEnum.WEBP, (int) (bits & 0x3FFF) + 1, (int) ((bits >> 14) & 0x3FFF) + 1);
+            }
+            default -> throw new IllegalArgumentException("Unknown WebP chunk " + chunk);
+        }
+    }
+
+    private static boolean isStartOfFrame(int marker) {
+        // SOF0..SOF15, except DHT (C4), JPG (C8) and DAC (CC), which share the range
+        return marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC;
+    }
+
+    private void count(ImageFormatEnum format, String outcome) {
+        meterRegistry.counter("image.validation",
+                "format", format != null ? format.name().toLowerCase(Locale.ROOT) : "unknown",
+                "outcome", outcome).increment();
+    }
+
+    public record ImageHeader(ImageFormatEnum format, int width, int height) {
+    }
+
+    /** Big- and little-endian reads that refuse to go past the mark limit. */
+    private static final class HeaderReader {
+        private final InputStream in;
+        private int consumed;
+
+        private HeaderReader(InputStream in) {
+            this.in = in;
+        }
+
+        int readUnsignedByte() throws IOException {
+            if (++consumed > MAX_HEADER_BYTES) {
+                throw new IllegalArgumentException("Image header is larger than " + MAX_HEADER_BYTES + " bytes");
+            }
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Image ends inside its header");
+            }
+            return b;
+        }
+
+        int readUnsignedShort() throws IOException {
+            return (readUnsignedByte() << 8) | readUnsignedByte();
+        }
+
+        int readUnsignedShortLe() throws IOException {
+            return readUnsignedByte() | (readUnsignedByte() << 8);
+        }
+
+        int readUnsignedInt24Le() throws IOException {
+            return readUnsignedByte() | (readUnsignedByte() << 8) | (readUnsignedByte() << 16);
+        }
+
+        int readInt() throws IOException {
+            return (readUnsignedShort() << 16) | readUnsignedShort();
+        }
+
+        String readFourCc() throws IOException {
+            char[] chars = new char[4];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = (char) readUnsignedByte();
+            }
+            return new String(chars);
+        }
+
+        void skip(long count) throws IOException {
+            if (consumed + count > MAX_HEADER_BYTES) {
+                throw new IllegalArgumentException("Image header is larger than " + MAX_HEADER_BYTES + " bytes");
+            }
+            long remaining = count;
+            while (remaining > 0) {
+                long skipped = in.skip(remaining);
+                if (skipped <= 0) {
+                    if (in.read() < 0) {
+                        throw new EOFException("Image ends inside its header");
+                    }
+                    skipped = 1;
+                }
+                remaining -= skipped;
+            }
+            consumed += (int) count;
+        }
+    }
+}
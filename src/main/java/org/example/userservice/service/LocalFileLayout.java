@@ -0,0 +1,104 @@
+package org.example.userservice.service;
+
+import com.google.common.hash.Hashing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Where locally stored profile pictures live on disk. Files are spread over
+ * two levels of 256 directories chosen by a hash of the file name, so no
+ * directory grows large, while URLs keep the flat
+ * {@code /profile-pictures/<name>} form. Files written before the sharded
+ * layout sit directly in the root until they are migrated.
+ */
+@Component
+public class LocalFileLayout {
+    private final Path root;
+    private final Set<Path> createdDirectories = ConcurrentHashMap.newKeySet();
+
+    public LocalFileLayout(@Value("${app.storage.local.upload-dir:uploads}") String uploadDir,
+                           @Value("${app.storage.local.profile-folder:profile-pictures}") String profileFolder) {
+        this.root = Paths.get(uploadDir, profileFolder).toAbsolutePath().normalize();
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    public Path pathOf(String fileName) {
+        int hash = Hashing.murmur3_32_fixed().hashString(fileName, StandardCharsets.UTF_8).asInt();
+        return root.resolve(String.format("%02x", hash & 0xFF))
+                .resolve(String.format("%02x", (hash >>> 8) & 0xFF))
+                .resolve(fileName);
+    }
+
+    public Path legacyPathOf(String fileName) {
+        return root.resolve(fileName);
+    }
+
+    /**
+     * Writes the content to a temporary file next to the target and moves it
+     * into place in one step, so readers see either the old file or the
+     * complete new one.
+     */
+    public Path write(String fileName, InputStream content) throws IOException {
+        Path target = pathOf(fileName);
+        Path temp = Files.createTempFile(ensureDirectory(target.getParent()), ".upload-", ".tmp");
+        try {
+            Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+            move(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return target;
+    }
+
+    /**
+     * Moves a file of the flat layout into its shard. Returns false if the
+     * file was already gone.
+     */
+    public boolean migrate(String fileName) throws IOException {
+        Path source = legacyPathOf(fileName);
+        Path target = pathOf(fileName);
+        ensureDirectory(target.getParent());
+        try {
+            move(source, target);
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    /** Creates each shard directory once per process instead of checking on every write. */
+    private Path ensureDirectory(Path directory) throws IOException {
+        if (createdDirectories.add(directory)) {
+            try {
+                Files.createDirectories(directory);
+            } catch (IOException e) {
+                createdDirectories.remove(directory);
+                throw e;
+            }
+        }
+        return directory;
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
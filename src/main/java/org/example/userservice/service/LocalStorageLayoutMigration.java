@@ -0,0 +1,67 @@
+package org.example.userservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Moves profile pictures of the flat layout into their shard directories.
+ * Each move is a rename within the same file system, and the serving path
+ * falls back to the flat location, so the migration can run while the
+ * service takes traffic and can be interrupted and restarted at any point.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LocalStorageLayoutMigration {
+    private static final int PROGRESS_INTERVAL = 100_000;
+
+    private final LocalFileLayout fileLayout;
+
+    @Value("${app.storage.local.migrate-layout:false}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        int moved = 0;
+        int failed = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(fileLayout.root(), Files::isRegularFile)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                if (fileName.startsWith(".")) {
+                    continue;
+                }
+                try {
+                    if (fileLayout.migrate(fileName)) {
+                        moved++;
+                    }
+                } catch (IOException e) {
+                    failed++;
+                    log.warn("Failed to move {} into the sharded layout: {}", fileName, e.getMessage());
+                }
+                if (moved > 0 && moved % PROGRESS_INTERVAL == 0) {
+                    log.info("Sharded layout migration: {} files moved so far", moved);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            log.error("Sharded layout migration failed: {}", e.getMessage(), e);
+        }
+        log.info("Sharded layout migration moved {} files in {} ms, {} failed",
+                moved, (System.nanoTime() - startNanos) / 1_000_000, failed);
+    }
+}
@@ -3,25 +3,26 @@ package org.example.userservice.service;
 import lombok.RequiredArgsConstructor;
 import org.example.userservice.service.serviceInterfaces.IStorageService;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "local")
 public class LocalStorageService implements IStorageService {
 
-    @Value("${app.storage.local.upload-dir:uploads}")
-    private String uploadDir;
-
-    @Value("${app.storage.local.base-url:http://localhost:8082}")
-    private String baseUrl;
+    private final LocalFileLayout fileLayout;
 
     @Value("${app.storage.local.profile-folder:profile-pictures}")
     private String profileFolder;
@@ -35,42 +36,59 @@ public class LocalStorageService implements IStorageService {
     @Override
     public String storeFile(MultipartFile file, String fileName) {
         try {
-            Path uploadPath = Paths.get(uploadDir, profileFolder);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-
-            Path filePath = uploadPath.resolve(fileName);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-            String relativePath = "/" + profileFolder + "/" + fileName;
-            return relativePath;
+            return store(file.getInputStream(), fileName);
         } catch (IOException e) {
             throw new RuntimeException("Failed to store file: " + fileName, e);
         }
     }
 
     @Override
-    public void deleteFile(String url) {
+    public CompletableFuture<String> storeFileAsync(InputStream content, long contentLength, String contentType, String fileName) {
+        try (content) {
+            return CompletableFuture.completedFuture(store(content, fileName));
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> storeImmutableFileAsync(byte[] content, String contentType, String fileName) {
+        if (Files.exists(fileLayout.pathOf(fileName))) {
+            return CompletableFuture.completedFuture(urlOf(fileName));
+        }
+        return storeFileAsync(new ByteArrayInputStream(content), content.length, contentType, fileName);
+    }
+
+    private String store(InputStream content, String fileName) {
         try {
-            String filePath = extractFilePathFromUrl(url);
-            Path path = Paths.get(uploadDir, filePath);
-            
-            if (Files.exists(path)) {
-                Files.delete(path);
-            }
+            fileLayout.write(fileName, content);
+            return urlOf(fileName);
         } catch (IOException e) {
+            throw new RuntimeException("Failed to store file: " + fileName, e);
         }
     }
 
-    private String extractFilePathFromUrl(String url) {
-        if (url.startsWith(baseUrl)) {
-            return url.substring(baseUrl.length());
-        }
-        if (url.startsWith("/")) {
-            return url.substring(1);
+    @Override
+    public Map<String, String> deleteFiles(Collection<String> urls) {
+        Map<String, String> failures = new HashMap<>();
+        for (String url : urls) {
+            String fileName = url.substring(url.lastIndexOf('/') + 1);
+            try {
+                Files.deleteIfExists(fileLayout.pathOf(fileName));
+                Files.deleteIfExists(fileLayout.legacyPathOf(fileName));
+            } catch (IOException e) {
+                failures.put(url, e.getMessage());
+            }
         }
-        return url;
+        return failures;
     }
-}
 
+    @Override
+    public String urlFor(String fileName) {
+        return urlOf(fileName);
+    }
+
+    private String urlOf(String fileName) {
+        return "/" + profileFolder + "/" + fileName;
+    }
+}
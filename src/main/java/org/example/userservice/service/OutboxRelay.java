@@ -0,0 +1,272 @@
+package org.example.userservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.userservice.config.RabbitBatchPublisher;
+import org.example.userservice.enums.OutboxStatusEnum;
+import org.example.userservice.event.OutboxMessageQueuedEvent;
+import org.example.userservice.model.OutboxEvent;
+import org.example.userservice.repository.OutboxEventRepository;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Drains the outbox to RabbitMQ in batches through {@link RabbitBatchPublisher}.
+ * Events are handed over in id order and deleted once the broker confirms
+ * them; failed events are retried with exponential backoff. A batch holds at
+ * most one event per aggregate, and a later event of the same aggregate is
+ * only selected once the earlier one is confirmed, which keeps per-user
+ * ordering even when an earlier event fails. Events that are not due, because
+ * they are waiting for a retry or are still inside their coalescing window,
+ * are not selected. An event that keeps failing is marked dead after the
+ * maximum number of attempts; it stays in the table for inspection and no
+ * longer holds back the events behind it.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+    private final OutboxEventRepository outboxEventRepository;
+    private final RabbitBatchPublisher rabbitBatchPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock runLock = new ReentrantLock();
+    private final AtomicLong backlogSize = new AtomicLong();
+    private final AtomicLong oldestEventAgeSeconds = new AtomicLong();
+    private final AtomicLong deadEventCount = new AtomicLong();
+    private final AtomicLong outageBackoffMs = new AtomicLong();
+    private final Counter publishedEvents;
+    private final Counter retriedEvents;
+    private final Counter deadEvents;
+    private volatile long pausedUntilNanos = System.nanoTime();
+
+    @Value("${app.outbox.relay-enabled:true}")
+    private boolean relayEnabled;
+
+    @Value("${app.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.outbox.confirm-timeout-ms:10000}")
+    private long confirmTimeoutMs;
+
+    @Value("${app.outbox.retry.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    @Value("${app.outbox.retry.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    @Value("${app.outbox.retry.max-attempts:20}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.outage.max-pause-ms:30000}")
+    private long maxOutagePauseMs;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       RabbitBatchPublisher rabbitBatchPublisher,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.rabbitBatchPublisher = rabbitBatchPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.publishedEvents = Counter.builder("outbox.relay.published")
+                .description("Outbox events confirmed by the broker")
+                .register(meterRegistry);
+        this.retriedEvents = Counter.builder("outbox.relay.retried")
+                .description("Outbox events rescheduled after a nack, return or missing confirm")
+                .register(meterRegistry);
+        this.deadEvents = Counter.builder("outbox.relay.dead")
+                .description("Outbox events given up on after the maximum number of attempts")
+                .register(meterRegistry);
+        Gauge.builder("outbox.backlog.size", backlogSize, AtomicLong::get)
+                .description("Events waiting in the outbox")
+                .register(meterRegistry);
+        Gauge.builder("outbox.backlog.oldest.age", oldestEventAgeSeconds, AtomicLong::get)
+                .description("Age of the oldest event waiting in the outbox")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("outbox.dead.size", deadEventCount, AtomicLong::get)
+                .description("Dead events kept in the outbox")
+                .register(meterRegistry);
+        Gauge.builder("outbox.relay.paused", this, relay -> relay.isPaused() ? 1 : 0)
+                .description("1 while the relay is backing off because the broker is unreachable")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts a relay run right after a transaction that queued a message
+     * commits, on the relay executor so the request thread never waits for
+     * the broker. Polling remains the fallback for anything missed here.
+     */
+    @Async("outboxRelayExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMessageQueued(OutboxMessageQueuedEvent event) {
+        relay();
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:500}")
+    public void relay() {
+        if (!relayEnabled || isPaused() || !runLock.tryLock()) {
+            return;
+        }
+        try {
+            Integer published;
+            // Confirmed events may have released the next event of their aggregate
+            do {
+                published = transactionTemplate.execute(status -> relayBatch());
+            } while (published != null && published > 0 && !isPaused());
+        } catch (Exception e) {
+            log.error("Outbox relay failed: {}", e.getMessage(), e);
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    /**
+     * Publishes one batch and returns the number of confirmed events; the
+     * relay continues without waiting as long as events get confirmed.
+     */
+    private int relayBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = outboxEventRepository.findDueForUpdate(now, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<OutboxEvent, CompletableFuture<Void>> sent = new LinkedHashMap<>();
+        List<OutboxEvent> failed = new ArrayList<>();
+        boolean brokerUnreachable = false;
+
+        for (OutboxEvent event : batch) {
+            sent.put(event, rabbitBatchPublisher.publish(
+                    event.getAggregateId(), event.getExchange(), event.getRoutingKey(), toMessage(event)));
+        }
+
+        List<OutboxEvent> confirmed = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        for (Map.Entry<OutboxEvent, CompletableFuture<Void>> entry : sent.entrySet()) {
+            OutboxEvent event = entry.getKey();
+            try {
+                entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                confirmed.add(event);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof AmqpConnectException) {
+                    // Not the event's fault: leave it untouched so it is replayed first once the broker is back
+                    brokerUnreachable = true;
+                    continue;
+                }
+                event.setLastError(e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                failed.add(event);
+            } catch (TimeoutException e) {
+                event.setLastError("No publisher confirm within " + confirmTimeoutMs + " ms");
+                failed.add(event);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                event.setLastError("Interrupted while waiting for publisher confirm");
+                failed.add(event);
+            }
+        }
+
+        outboxEventRepository.deleteAllInBatch(confirmed);
+        for (OutboxEvent event : failed) {
+            scheduleRetry(event, now);
+        }
+        publishedEvents.increment(confirmed.size());
+        retriedEvents.increment(failed.size());
+        if (!failed.isEmpty()) {
+            log.warn("Outbox relay published {} events, {} will be retried", confirmed.size(), failed.size());
+        }
+        if (brokerUnreachable) {
+            pauseForOutage();
+        } else {
+            outageBackoffMs.set(0);
+        }
+        return confirmed.size();
+    }
+
+    /**
+     * Stops polling while the broker is unreachable, doubling the pause up to
+     * a maximum, so that an outage costs neither row updates nor a query
+     * every poll interval. The first run after the pause acts as the probe.
+     */
+    private void pauseForOutage() {
+        long pause = outageBackoffMs.updateAndGet(current ->
+                current == 0 ? initialBackoffMs : Math.min(maxOutagePauseMs, current * 2));
+        pausedUntilNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(pause);
+        log.warn("RabbitMQ is unreachable, outbox relay paused for {} ms", pause);
+    }
+
+    private boolean isPaused() {
+        return System.nanoTime() - pausedUntilNanos < 0;
+    }
+
+    /**
+     * Refreshes the backlog gauges on their own schedule, so that an idle
+     * relay polling every few hundred milliseconds does not count the table
+     * each time.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.metrics-interval-ms:15000}")
+    public void updateBacklogMetrics() {
+        try {
+            backlogSize.set(outboxEventRepository.countByStatus(OutboxStatusEnum.PENDING));
+            deadEventCount.set(outboxEventRepository.countByStatus(OutboxStatusEnum.DEAD));
+            LocalDateTime oldest = outboxEventRepository.findOldestCreatedAt(OutboxStatusEnum.PENDING);
+            oldestEventAgeSeconds.set(oldest != null ? Duration.between(oldest, LocalDateTime.now()).toSeconds() : 0);
+        } catch (Exception e) {
+            log.debug("Failed to refresh outbox backlog metrics: {}", e.getMessage());
+        }
+    }
+
+    private Message toMessage(OutboxEvent event) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(event.getContentType());
+        properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        properties.setMessageId("outbox-" + event.getId());
+        if (event.getTypeId() != null) {
+            properties.setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, event.getTypeId());
+        }
+        return new Message(event.getPayload(), properties);
+    }
+
+    private void scheduleRetry(OutboxEvent event, LocalDateTime now) {
+        int attempts = event.getAttempts() + 1;
+        long backoff = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempts - 1, 20));
+        event.setAttempts(attempts);
+        event.setNextAttemptAt(now.plusNanos(TimeUnit.MILLISECONDS.toNanos(backoff)));
+        String error = event.getLastError();
+        if (error != null && error.length() > 1000) {
+            event.setLastError(error.substring(0, 1000));
+        }
+        if (attempts >= maxAttempts) {
+            event.setStatus(OutboxStatusEnum.DEAD);
+            deadEvents.increment();
+            log.error("Outbox event {} for {} gave up after {} attempts: {}",
+                    event.getId(), event.getRoutingKey(), attempts, event.getLastError());
+        }
+        outboxEventRepository.save(event);
+    }
+}
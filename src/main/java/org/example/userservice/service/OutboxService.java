@@ -0,0 +1,84 @@
+package org.example.userservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.userservice.enums.OutboxStatusEnum;
+import org.example.userservice.event.OutboxMessageQueuedEvent;
+import org.example.userservice.model.OutboxEvent;
+import org.example.userservice.repository.OutboxEventRepository;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes outgoing broker messages to the outbox table in the caller's
+ * transaction. Messages are converted up front, so the relay only moves
+ * bytes and the wire format is fixed at the time of the change.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+    private final OutboxEventRepository outboxEventRepository;
+    private final MessageConverter messageConverter;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.messaging.content-type:application/json}")
+    private String contentType;
+
+    @Transactional
+    public void enqueue(String aggregateId, String exchange, String routingKey, Object payload) {
+        OutboxEvent event = OutboxEvent.builder()
+                .aggregateId(aggregateId)
+                .exchange(exchange)
+                .routingKey(routingKey)
+                .build();
+        writePayload(event, payload);
+        outboxEventRepository.save(event);
+        eventPublisher.publishEvent(new OutboxMessageQueuedEvent(aggregateId));
+    }
+
+    /**
+     * Enqueues a message that replaces any unpublished message with the same
+     * coalesce key. A new message is held for the window first, so a burst of
+     * changes leaves a single row carrying the latest payload.
+     */
+    @Transactional
+    public void enqueueCoalesced(String aggregateId, String coalesceKey, String exchange, String routingKey,
+                                 Object payload, long windowMs) {
+        Optional<OutboxEvent> pending = outboxEventRepository.findFirstByCoalesceKeyAndStatusOrderByIdDesc(
+                coalesceKey, OutboxStatusEnum.PENDING);
+        if (pending.isPresent()) {
+            writePayload(pending.get(), payload);
+            return;
+        }
+        OutboxEvent event = OutboxEvent.builder()
+                .aggregateId(aggregateId)
+                .coalesceKey(coalesceKey)
+                .exchange(exchange)
+                .routingKey(routingKey)
+                .nextAttemptAt(LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(windowMs)))
+                .build();
+        writePayload(event, payload);
+        outboxEventRepository.save(event);
+    }
+
+    private void writePayload(OutboxEvent event, Object payload) {
+        MessageProperties requested = new MessageProperties();
+        requested.setContentType(contentType);
+        Message message = messageConverter.toMessage(payload, requested);
+        MessageProperties properties = message.getMessageProperties();
+        Object typeId = properties.getHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME);
+
+        event.setPayload(message.getBody());
+        event.setContentType(properties.getContentType());
+        event.setTypeId(typeId != null ? typeId.toString() : null);
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.userservice.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.example.userservice.util.TransactionHooks.afterCommit;
+
+/**
+ * Keeps the encoded bytes of small, frequently read profile pictures in
+ * memory, keyed by stored file name and bounded by their total size.
+ * Entries can live in direct buffers so that a full cache does not add to
+ * the heap the garbage collector has to trace.
+ */
+@Service
+public class ProfileImageCache {
+    private final Cache<String, CachedImage> cache;
+    private final AtomicLong residentBytes = new AtomicLong();
+    private final long maxEntryBytes;
+    private final boolean offHeap;
+
+    public ProfileImageCache(MeterRegistry meterRegistry,
+                             @Value("${app.image-cache.max-bytes:67108864}") long maxBytes,
+                             @Value("${app.image-cache.max-entry-bytes:262144}") long maxEntryBytes,
+                             @Value("${app.image-cache.ttl-seconds:3600}") long ttlSeconds,
+                             @Value("${app.image-cache.off-heap:true}") boolean offHeap) {
+        this.maxEntryBytes = maxEntryBytes;
+        this.offHeap = offHeap;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .<String, CachedImage>weigher((fileName, image) -> image.data().capacity())
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .removalListener(notification -> residentBytes.addAndGet(-notification.getValue().data().capacity()))
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, cache, "profileImages");
+        Gauge.builder("image.cache.resident.bytes", residentBytes, AtomicLong::get)
+                .description("Bytes of profile pictures held by the image cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("image.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of image cache lookups served from memory")
+                .register(meterRegistry);
+    }
+
+    public CachedImage get(String fileName) {
+        return cache.getIfPresent(fileName);
+    }
+
+    public boolean isCacheable(long size) {
+        return size <= maxEntryBytes;
+    }
+
+    /**
+     * Returns the cached file, reading it once if concurrent requests miss
+     * at the same time.
+     */
+    public CachedImage load(String fileName, Path file, long lastModified) throws IOException {
+        try {
+            return cache.get(fileName, () -> read(file, lastModified));
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Drops the files behind the given picture URLs once the current
+     * transaction commits.
+     */
+    public void invalidate(Collection<String> urls) {
+        List<String> fileNames = new ArrayList<>();
+        for (String url : urls) {
+            if (url != null) {
+                fileNames.add(url.substring(url.lastIndexOf('/') + 1));
+            }
+        }
+        if (!fileNames.isEmpty()) {
+            afterCommit(() -> cache.invalidateAll(fileNames));
+        }
+    }
+
+    private CachedImage read(Path file, long lastModified) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer data = offHeap ? ByteBuffer.allocateDirect(bytes.length).put(bytes).flip() : ByteBuffer.wrap(bytes);
+        residentBytes.addAndGet(bytes.length);
+        return new CachedImage(data.asReadOnlyBuffer(), lastModified);
+    }
+
+    public record CachedImage(ByteBuffer data, long lastModified) {
+
+        public long length() {
+            return data.capacity();
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package org.example.userservice.service;
+
+import jakarta.annotation.PreDestroy;
+import org.example.userservice.enums.ImageVariantEnum;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Turns an uploaded picture into the sizes in {@link ImageVariantEnum}. The
+ * upload is decoded once, after its dimensions have been checked against
+ * the pixel limit, and turned upright according to its EXIF orientation.
+ * Every variant is re-encoded from the pixels alone, which drops EXIF and
+ * any other metadata, so the orientation must be applied first. Decodes and encodes run on
+ * fixed-size pools, so concurrent uploads cannot exhaust CPU or heap.
+ */
+@Service
+public class ProfileImageProcessor {
+    private static final Set<String> SUPPORTED_FORMATS = Set.of("jpeg", "png");
+    private static final int ORIENTATION_TAG = 0x0112;
+
+    private final ExecutorService decodeExecutor;
+    private final ExecutorService encodeExecutor;
+
+    @Value("${app.image.max-pixels:40000000}")
+    private long maxPixels;
+
+    @Value("${app.image.jpeg-quality:0.85}")
+    private float jpegQuality;
+
+    public ProfileImageProcessor(@Value("${app.image.decode-threads:2}") int decodeThreads,
+                                 @Value("${app.image.encode-threads:4}") int encodeThreads) {
+        // Decoded rasters stay in memory instead of being cached in temp files
+        ImageIO.setUseCache(false);
+        this.decodeExecutor = Executors.newFixedThreadPool(decodeThreads);
+        this.encodeExecutor = Executors.newFixedThreadPool(encodeThreads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        decodeExecutor.shutdown();
+        encodeExecutor.shutdown();
+    }
+
+    public Map<ImageVariantEnum, ProcessedImage> process(InputStream content) {
+        try {
+            return processAsync(content).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public CompletableFuture<Map<ImageVariantEnum, ProcessedImage>> processAsync(InputStream content) {
+        return CompletableFuture.supplyAsync(() -> decode(content), decodeExecutor)
+                .thenCompose(this::encodeVariants);
+    }
+
+    private BufferedImage decode(InputStream content) {
+        try (content; ImageInputStream input = ImageIO.createImageInputStream(content)) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("File is not a readable image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                if (!SUPPORTED_FORMATS.contains(reader.getFormatName().toLowerCase())) {
+                    throw new IllegalArgumentException("Only JPEG and PNG images are supported");
+                }
+                int orientation = "jpeg".equalsIgnoreCase(reader.getFormatName()) ? exifOrientation(input) : 1;
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new IllegalArgumentException("Image exceeds the maximum of " + maxPixels + " pixels");
+                }
+                return orient(reader.read(0), orientation);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("File is not a readable image", e);
+        }
+    }
+
+    /**
+     * The EXIF orientation (1 to 8) of a JPEG, or 1 when it has no readable
+     * one. Scans the segments before the first frame and leaves the stream
+     * where it was; the image reader is not asked, because it rejects
+     * metadata in an unexpected order.
+     */
+    static int exifOrientation(ImageInputStream input) throws IOException {
+        input.mark();
+        try {
+            if (input.readUnsignedShort() != 0xFFD8) {
+                return 1;
+            }
+            while (true) {
+                int marker = input.readUnsignedShort();
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || (marker >= 0xFFC0 && marker <= 0xFFCF
+                        && marker != 0xFFC4 && marker != 0xFFC8 && marker != 0xFFCC)) {
+                    return 1;
+                }
+                int length = input.readUnsignedShort();
+                if (length < 2) {
+                    return 1;
+                }
+                if (marker == 0xFFE1) {
+                    byte[] payload = new byte[length - 2];
+                    input.readFully(payload);
+                    int orientation = exifOrientation(payload);
+                    if (orientation != 0) {
+                        return orientation;
+                    }
+                } else {
+                    input.skipBytes(length - 2);
+                }
+            }
+        } catch (EOFException e) {
+            return 1;
+        } finally {
+            input.reset();
+        }
+    }
+
+    /**
+     * Reads the orientation tag from the first IFD of an APP1 segment
+     * payload; 0 when the segment is not EXIF or has no valid tag.
+     */
+    static int exifOrientation(byte[] app1) {
+        byte[] signature = "Exif\0\0".getBytes(StandardCharsets.US_ASCII);
+        if (app1.length < signature.length + 8) {
+            return 0;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if (app1[i] != signature[i]) {
+                return 0;
+            }
+        }
+        ByteBuffer tiff = ByteBuffer.wrap(app1, signature.length, app1.length - signature.length).slice();
+        if (tiff.get(0) == 'I' && tiff.get(1) == 'I') {
+            tiff.order(ByteOrder.LITTLE_ENDIAN);
+        } else if (tiff.get(0) != 'M' || tiff.get(1) != 'M') {
+            return 0;
+        }
+        long ifd = Integer.toUnsignedLong(tiff.getInt(4));
+        if (ifd + 2 > tiff.limit()) {
+            return 0;
+        }
+        int entries = Short.toUnsignedInt(tiff.getShort((int) ifd));
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i * 12;
+            if (entry + 12 > tiff.limit()) {
+                return 0;
+            }
+            if (Short.toUnsignedInt(tiff.getShort(entry)) == ORIENTATION_TAG) {
+                int orientation = Short.toUnsignedInt(tiff.getShort(entry + 8));
+                return orientation >= 1 && orientation <= 8 ? orientation : 0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Applies an EXIF orientation, so that the pixels are upright without
+     * the tag.
+     */
+    static BufferedImage orient(BufferedImage source, int orientation) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        AffineTransform transform = new AffineTransform();
+        switch (orientation) {
+            case 2 -> {
+                transform.translate(width, 0);
+                transform.scale(-1, 1);
+            }
+            case 3 -> {
+                transform.translate(width, height);
+                transform.rotate(Math.PI);
+            }
+            case 4 -> {
+                transform.translate(0, height);
+                transform.scale(1, -1);
+            }
+            case 5 -> {
+                transform.rotate(Math.PI / 2);
+                transform.scale(1, -1);
+            }
+            case 6 -> {
+                transform.translate(height, 0);
+                transform.rotate(Math.PI / 2);
+            }
+            case 7 -> {
+                transform.translate(height, width);
+                transform.scale(-1, 1);
+                transform.rotate(-Math.PI / 2);
+            }
+            case 8 -> {
+                transform.translate(0, width);
+                transform.rotate(-Math.PI / 2);
+            }
+            default -> {
+                return source;
+            }
+        }
+        boolean transposed = orientation >= 5;
+        BufferedImage oriented = new BufferedImage(transposed ? height : width, transposed ? width : height,
+                source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = oriented.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            graphics.drawImage(source, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return oriented;
+    }
+
+    private CompletableFuture<Map<ImageVariantEnum, ProcessedImage>> encodeVariants(BufferedImage source) {
+        Map<ImageVariantEnum, CompletableFuture<ProcessedImage>> futures = new EnumMap<>(ImageVariantEnum.class);
+        for (ImageVariantEnum variant : ImageVariantEnum.values()) {
+            futures.put(variant, CompletableFuture.supplyAsync(() -> encode(source, variant), encodeExecutor));
+        }
+        return CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    Map<ImageVariantEnum, ProcessedImage> images = new EnumMap<>(ImageVariantEnum.class);
+                    futures.forEach((variant, future) -> images.put(variant, future.join()));
+                    return images;
+                });
+    }
+
+    private ProcessedImage encode(BufferedImage source, ImageVariantEnum variant) {
+        boolean alpha = source.getColorModel().hasAlpha();
+        BufferedImage resized = resize(source, variant.getMaxEdge(), alpha);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            if (alpha) {
+                ImageIO.write(resized, "png", out);
+                return new ProcessedImage(out.toByteArray(), "image/png", "png");
+            }
+            writeJpeg(resized, out);
+            return new ProcessedImage(out.toByteArray(), "image/jpeg", "jpg");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode " + variant + " image", e);
+        }
+    }
+
+    private void writeJpeg(BufferedImage image, ByteArrayOutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Scales down in steps of at most one half, which keeps bilinear
+     * filtering from skipping source pixels on large reductions.
+     */
+    private static BufferedImage resize(BufferedImage source, int maxEdge, boolean alpha) {
+        double scale = Math.min(1.0, (double) maxEdge / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height,
+                    alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                if (!alpha) {
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, width, height);
+                }
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    public record ProcessedImage(byte[] data, String contentType, String extension) {
+    }
+}
@@ -1,27 +1,77 @@
 package org.example.userservice.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import lombok.extern.slf4j.Slf4j;
+import org.example.userservice.dto.responses.PresignedUploadDTO;
+import org.example.userservice.service.serviceInterfaces.IDirectUploadService;
 import org.example.userservice.service.serviceInterfaces.IStorageService;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Primary;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
-import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
-import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 /**
  * S3-based storage service for user profile pictures.
- * Marked as @Primary to override LocalStorageService in production.
+ * Active unless app.storage.backend selects local storage. The SDK
+ * clients are created on first use, so a context that never touches S3
+ * never loads the SDK or probes the credential chain.
+ * Uploads stream from the caller's input through the async client as
+ * single PUTs: uploads are capped at S3's 5 MiB minimum part size, so
+ * multipart would never split them. Clients can also upload directly with
+ * presigned PUT URLs.
  */
+@Slf4j
 @Service
-@Primary
-public class S3StorageService implements IStorageService {
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "s3", matchIfMissing = true)
+public class S3StorageService implements IStorageService, IDirectUploadService {
+    public static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+    private static final int MAX_KEYS_PER_DELETE = 1000;
 
     @Value("${aws.s3.bucket:derent-uploads}")
     private String bucketName;
@@ -32,14 +82,96 @@ public class S3StorageService implements IStorageService {
     @Value("${aws.s3.prefix:profile-pictures/}")
     private String keyPrefix;
 
-    private S3Client s3Client;
+    @Value("${aws.s3.endpoint:}")
+    private String endpoint;
 
-    @PostConstruct
-    public void init() {
-        this.s3Client = S3Client.builder()
+    @Value("${aws.s3.http.max-concurrency:64}")
+    private int maxConcurrency;
+
+    @Value("${aws.s3.http.connection-acquisition-timeout-ms:10000}")
+    private long connectionAcquisitionTimeoutMs;
+
+    @Value("${aws.s3.upload.stream-threads:8}")
+    private int streamThreads;
+
+    @Value("${aws.s3.presign.ttl-seconds:300}")
+    private long presignTtlSeconds;
+
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary uploadedBytes;
+    private final Counter deduplicatedUploads;
+
+    private final List<AutoCloseable> openedResources = new CopyOnWriteArrayList<>();
+    private final Supplier<S3AsyncClient> s3Client = Suppliers.memoize(this::createClient);
+    private final Supplier<S3Presigner> presigner = Suppliers.memoize(this::createPresigner);
+    private final Supplier<ExecutorService> streamExecutor = Suppliers.memoize(this::createStreamExecutor);
+
+    public S3StorageService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.uploadedBytes = DistributionSummary.builder("storage.upload.size")
+                .description("Size of uploaded objects")
+                .baseUnit("bytes")
+                .tag("backend", "s3")
+                .register(meterRegistry);
+        this.deduplicatedUploads = Counter.builder("storage.upload.deduplicated")
+                .description("Uploads skipped because an identical object was already stored")
+                .tag("backend", "s3")
+                .register(meterRegistry);
+    }
+
+    private S3AsyncClient createClient() {
+        SdkAsyncHttpClient httpClient = NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(maxConcurrency)
+                .connectionAcquisitionTimeout(Duration.ofMillis(connectionAcquisitionTimeoutMs))
+                .tcpKeepAlive(true)
+                .build();
+        S3AsyncClientBuilder builder = S3AsyncClient.builder()
                 .region(Region.of(region))
                 .credentialsProvider(DefaultCredentialsProvider.create())
-                .build();
+                .httpClient(httpClient);
+        if (!endpoint.isBlank()) {
+            // S3-compatible stand-ins such as MinIO or LocalStack only serve path-style URLs
+            builder.endpointOverride(URI.create(endpoint)).forcePathStyle(true);
+        }
+        S3AsyncClient client = builder.build();
+        openedResources.add(httpClient);
+        openedResources.add(client);
+        log.info("Created S3 client for bucket {}", bucketName);
+        return client;
+    }
+
+    private S3Presigner createPresigner() {
+        S3Presigner.Builder presignerBuilder = S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(DefaultCredentialsProvider.create());
+        if (!endpoint.isBlank()) {
+            presignerBuilder.endpointOverride(URI.create(endpoint))
+                    .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build());
+        }
+        S3Presigner created = presignerBuilder.build();
+        openedResources.add(created);
+        return created;
+    }
+
+    private ExecutorService createStreamExecutor() {
+        ExecutorService executor = Executors.newFixedThreadPool(streamThreads);
+        openedResources.add(() -> {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        });
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Only what was actually created, newest first so clients close before their HTTP client
+        for (int i = openedResources.size() - 1; i >= 0; i--) {
+            try {
+                openedResources.get(i).close();
+            } catch (Exception e) {
+                log.warn("Failed to close S3 resource: {}", e.getMessage());
+            }
+        }
     }
 
     @Override
@@ -51,58 +183,219 @@ public class S3StorageService implements IStorageService {
     @Override
     public String storeFile(MultipartFile file, String fileName) {
         try {
-            String sanitizedFileName = sanitizeFileName(fileName);
-            String key = keyPrefix + sanitizedFileName;
+            return storeFileAsync(file.getInputStream(), file.getSize(), file.getContentType(), fileName).join();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to upload file to S3: " + fileName, e);
+        } catch (CompletionException e) {
+            throw new RuntimeException("Failed to upload file to S3: " + fileName, e.getCause());
+        }
+    }
 
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(key)
-                    .contentType(file.getContentType())
-                    .build();
+    @Override
+    public CompletableFuture<String> storeFileAsync(InputStream content, long contentLength,
+                                                    String contentType, String fileName) {
+        String key = keyPrefix + sanitizeFileName(fileName);
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .contentLength(contentLength)
+                .build();
+        return upload(putObjectRequest, AsyncRequestBody.fromInputStream(content, contentLength, streamExecutor.get()),
+                contentLength, key)
+                .whenComplete((url, error) -> closeQuietly(content));
+    }
 
-            s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
+    private CompletableFuture<String> upload(PutObjectRequest putObjectRequest, AsyncRequestBody body,
+                                             long contentLength, String key) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return s3Client.get().putObject(putObjectRequest, body)
+                .handle((response, error) -> {
+                    sample.stop(Timer.builder("storage.upload.latency")
+                            .description("Time to upload an object to storage")
+                            .tag("backend", "s3")
+                            .tag("outcome", error == null ? "success" : "failure")
+                            .register(meterRegistry));
+                    if (error != null) {
+                        throw new CompletionException(error instanceof CompletionException ? error.getCause() : error);
+                    }
+                    uploadedBytes.record(contentLength);
+                    return objectUrl(key);
+                });
+    }
 
-            // Return the full S3 URL
-            return String.format("https://%s.s3.%s.amazonaws.com/%s", bucketName, region, key);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to upload file to S3: " + fileName, e);
+    @Override
+    public CompletableFuture<String> storeImmutableFileAsync(byte[] content, String contentType, String fileName) {
+        String key = keyPrefix + sanitizeFileName(fileName);
+        return s3Client.get().headObject(HeadObjectRequest.builder().bucket(bucketName).key(key).build())
+                .handle((head, error) -> error == null)
+                .thenCompose(exists -> {
+                    if (exists) {
+                        deduplicatedUploads.increment();
+                        return CompletableFuture.completedFuture(objectUrl(key));
+                    }
+                    PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                            .bucket(bucketName)
+                            .key(key)
+                            .contentType(contentType)
+                            .contentLength((long) content.length)
+                            .cacheControl(IMMUTABLE_CACHE_CONTROL)
+                            .build();
+                    return upload(putObjectRequest, AsyncRequestBody.fromBytes(content), content.length, key);
+                });
+    }
+
+    @Override
+    public String urlFor(String fileName) {
+        return objectUrl(keyPrefix + sanitizeFileName(fileName));
+    }
+
+    @Override
+    public PresignedUploadDTO createUploadUrl(String fileName, String contentType, long contentLength) {
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(keyPrefix + sanitizeFileName(fileName))
+                .contentType(contentType)
+                .contentLength(contentLength)
+                .cacheControl(IMMUTABLE_CACHE_CONTROL)
+                .build();
+        PresignedPutObjectRequest presigned = presigner.get().presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(Duration.ofSeconds(presignTtlSeconds))
+                .putObjectRequest(putObjectRequest)
+                .build());
+
+        // Content-Type, Content-Length and Cache-Control are part of the signature, so S3 rejects any other upload
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> header : presigned.signedHeaders().entrySet()) {
+            if (!header.getKey().equalsIgnoreCase("host")) {
+                headers.put(header.getKey(), String.join(",", header.getValue()));
+            }
         }
+        return PresignedUploadDTO.builder()
+                .uploadUrl(presigned.url().toString())
+                .method("PUT")
+                .key(sanitizeFileName(fileName))
+                .headers(headers)
+                .expiresAt(presigned.expiration())
+                .build();
     }
 
     @Override
-    public void deleteFile(String url) {
+    public Optional<StoredObject> findObject(String fileName) {
+        String key = keyPrefix + sanitizeFileName(fileName);
         try {
-            // Extract key from URL
+            HeadObjectResponse head = s3Client.get().headObject(HeadObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .build()).join();
+            return Optional.of(new StoredObject(objectUrl(key), head.contentType(), head.contentLength()));
+        } catch (CompletionException e) {
+            // HEAD responses carry no body, so a missing key only shows up as a 404
+            if (e.getCause() instanceof S3Exception s3Exception && s3Exception.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public byte[] readObjectHead(String fileName, int maxBytes) {
+        GetObjectRequest request = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(keyPrefix + sanitizeFileName(fileName))
+                .range("bytes=0-" + (maxBytes - 1))
+                .build();
+        try {
+            return s3Client.get().getObject(request, AsyncResponseTransformer.toBytes()).join().asByteArray();
+        } catch (CompletionException e) {
+            // Deleted since findObject saw it; the client has to upload again
+            if (e.getCause() instanceof S3Exception s3Exception && s3Exception.statusCode() == 404) {
+                throw new IllegalArgumentException("No uploaded file found for key: " + fileName);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Map<String, String> deleteFiles(Collection<String> urls) {
+        Map<String, List<String>> urlsByKey = new LinkedHashMap<>();
+        for (String url : urls) {
             String key = extractKeyFromUrl(url);
             if (key != null) {
-                DeleteObjectRequest deleteRequest = DeleteObjectRequest.builder()
-                        .bucket(bucketName)
-                        .key(key)
-                        .build();
-                s3Client.deleteObject(deleteRequest);
+                urlsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(url);
+            } else {
+                log.warn("Not deleting {}: not an object of bucket {}", url, bucketName);
             }
-        } catch (Exception e) {
-            // Log but don't throw - file may already be deleted
-            System.err.println("Failed to delete file from S3: " + url + " - " + e.getMessage());
         }
+
+        // One request deletes up to 1000 keys; quiet mode only reports the failures
+        List<String> keys = new ArrayList<>(urlsByKey.keySet());
+        List<CompletableFuture<DeleteObjectsResponse>> requests = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += MAX_KEYS_PER_DELETE) {
+            List<ObjectIdentifier> objects = keys.subList(from, Math.min(keys.size(), from + MAX_KEYS_PER_DELETE))
+                    .stream()
+                    .map(key -> ObjectIdentifier.builder().key(key).build())
+                    .toList();
+            requests.add(s3Client.get().deleteObjects(DeleteObjectsRequest.builder()
+                    .bucket(bucketName)
+                    .delete(Delete.builder().objects(objects).quiet(true).build())
+                    .build()));
+        }
+
+        Map<String, String> failures = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                for (S3Error error : requests.get(i).join().errors()) {
+                    urlsByKey.getOrDefault(error.key(), List.of())
+                            .forEach(url -> failures.put(url, error.code() + ": " + error.message()));
+                }
+            } catch (CompletionException e) {
+                String message = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+                int from = i * MAX_KEYS_PER_DELETE;
+                for (String key : keys.subList(from, Math.min(keys.size(), from + MAX_KEYS_PER_DELETE))) {
+                    urlsByKey.get(key).forEach(url -> failures.put(url, message));
+                }
+            }
+        }
+        return failures;
+    }
+
+    private String objectUrl(String key) {
+        if (!endpoint.isBlank()) {
+            return String.format("%s/%s/%s", stripTrailingSlash(endpoint), bucketName, key);
+        }
+        return String.format("https://%s.s3.%s.amazonaws.com/%s", bucketName, region, key);
     }
 
     private String extractKeyFromUrl(String url) {
         if (url == null) return null;
-        
+
         // Handle S3 URL format: https://bucket.s3.region.amazonaws.com/key
         if (url.contains("amazonaws.com/")) {
             return url.substring(url.indexOf("amazonaws.com/") + "amazonaws.com/".length());
         }
-        
-        // Handle /profile-pictures/ format (legacy local storage)
-        if (url.startsWith("/profile-pictures/")) {
-            return keyPrefix + url.substring("/profile-pictures/".length());
+
+        // Handle path-style URLs of a configured endpoint: http://host:port/bucket/key
+        String pathStylePrefix = stripTrailingSlash(endpoint) + "/" + bucketName + "/";
+        if (!endpoint.isBlank() && url.startsWith(pathStylePrefix)) {
+            return url.substring(pathStylePrefix.length());
         }
-        
+
         return null;
     }
 
+    private static String stripTrailingSlash(String value) {
+        return value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+    }
+
+    private static void closeQuietly(InputStream content) {
+        try {
+            content.close();
+        } catch (IOException e) {
+            log.debug("Failed to close upload stream: {}", e.getMessage());
+        }
+    }
+
     private String sanitizeFileName(String fileName) {
         if (fileName == null) return "unknown";
         // Remove path separators and special characters
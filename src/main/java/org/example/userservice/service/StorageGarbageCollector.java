@@ -0,0 +1,249 @@
+package org.example.userservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.userservice.model.StorageDeletion;
+import org.example.userservice.repository.StorageDeletionRepository;
+import org.example.userservice.repository.UserRepository;
+import org.example.userservice.service.serviceInterfaces.IStorageService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes stored pictures that no user references any more. Stored files
+ * are shared between users with identical content, so a replaced picture
+ * is only a candidate: it is recorded in the same transaction as the change
+ * that released it and, after a grace period covering uploads that reused
+ * the file but have not committed yet, deleted if no row points at it.
+ * Due rows are locked, checked for references and deleted from storage in
+ * one batch within a single transaction, so nothing can start referencing
+ * a file between the check and its deletion without waiting for the lock.
+ * Writers reusing a stored file take the same row locks through
+ * {@link #reserve}. Failed deletions are retried with exponential backoff.
+ */
+@Slf4j
+@Service
+public class StorageGarbageCollector {
+    private final IStorageService storageService;
+    private final StorageDeletionRepository storageDeletionRepository;
+    private final UserRepository userRepository;
+    private final ProfileImageCache profileImageCache;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicLong backlogSize = new AtomicLong();
+    private final AtomicLong oldestDeletionAgeSeconds = new AtomicLong();
+    private final Counter deletedFiles;
+    private final Counter retriedFiles;
+    private final Counter keptFiles;
+
+    @Value("${app.storage.gc.grace-seconds:600}")
+    private long graceSeconds;
+
+    @Value("${app.storage.gc.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.storage.gc.retry.initial-backoff-ms:5000}")
+    private long initialBackoffMs;
+
+    @Value("${app.storage.gc.retry.max-backoff-ms:3600000}")
+    private long maxBackoffMs;
+
+    public StorageGarbageCollector(IStorageService storageService,
+                                   StorageDeletionRepository storageDeletionRepository,
+                                   UserRepository userRepository,
+                                   ProfileImageCache profileImageCache,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        this.storageService = storageService;
+        this.storageDeletionRepository = storageDeletionRepository;
+        this.userRepository = userRepository;
+        this.profileImageCache = profileImageCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.deletedFiles = Counter.builder("storage.gc.deleted")
+                .description("Stored files deleted because no user references them")
+                .register(meterRegistry);
+        this.retriedFiles = Counter.builder("storage.gc.retried")
+                .description("Stored file deletions rescheduled after a storage failure")
+                .register(meterRegistry);
+        this.keptFiles = Counter.builder("storage.gc.kept")
+                .description("Released files kept because a user references them again")
+                .register(meterRegistry);
+        Gauge.builder("storage.gc.pending", backlogSize, AtomicLong::get)
+                .description("Stored files waiting to be deleted")
+                .register(meterRegistry);
+        Gauge.builder("storage.gc.oldest.age", oldestDeletionAgeSeconds, AtomicLong::get)
+                .description("Age of the oldest pending deletion")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records files that the current transaction stops referencing; they
+     * become candidates only if it commits.
+     */
+    public void release(Collection<String> urls) {
+        schedule(urls, LocalDateTime.now().plusSeconds(graceSeconds));
+    }
+
+    /**
+     * Records a file that was never referenced, such as a rejected direct
+     * upload, for deletion on the next run.
+     */
+    public void discard(String url) {
+        schedule(List.of(url), LocalDateTime.now());
+    }
+
+    /**
+     * Records a file a client may still upload, such as the target of a
+     * presigned upload, for deletion a grace period after the upload window
+     * closes. If a user references the file by then, it is kept.
+     */
+    public void expireUnclaimed(String url, Instant uploadableUntil) {
+        LocalDateTime closed = LocalDateTime.ofInstant(uploadableUntil, ZoneId.systemDefault());
+        schedule(List.of(url), closed.plusSeconds(graceSeconds));
+    }
+
+    /**
+     * Protects files that are about to be referenced again, such as a
+     * stored file reused for identical content. Must be called before
+     * checking whether the file exists: a deletion already in progress is
+     * waited for, so the check then sees the file gone and stores it again,
+     * and a pending one is postponed by a full grace period, long enough for
+     * the new reference to commit.
+     */
+    public void reserve(Collection<String> urls) {
+        List<String> distinct = urls.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinct.isEmpty()) {
+            return;
+        }
+        LocalDateTime later = LocalDateTime.now().plusSeconds(graceSeconds);
+        transactionTemplate.executeWithoutResult(status -> storageDeletionRepository.postpone(distinct, later));
+    }
+
+    @Scheduled(fixedDelayString = "${app.storage.gc.interval-ms:60000}")
+    public void collect() {
+        try {
+            Integer locked;
+            do {
+                locked = transactionTemplate.execute(status -> collectBatch());
+            } while (locked != null && locked == batchSize);
+        } catch (Exception e) {
+            log.error("Storage garbage collection failed: {}", e.getMessage(), e);
+        } finally {
+            updateBacklogMetrics();
+        }
+    }
+
+    private void schedule(Collection<String> urls, LocalDateTime dueAt) {
+        List<StorageDeletion> deletions = urls.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(url -> StorageDeletion.builder().url(url).dueAt(dueAt).build())
+                .toList();
+        storageDeletionRepository.saveAll(deletions);
+    }
+
+    /**
+     * Locks a batch of due rows, drops those whose file is referenced again
+     * and deletes the rest from storage while the locks are held. Returns
+     * how many rows were locked.
+     */
+    private int collectBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<StorageDeletion> due = storageDeletionRepository.findDueForUpdate(now, PageRequest.of(0, batchSize));
+        if (due.isEmpty()) {
+            return 0;
+        }
+        Set<String> referenced = new HashSet<>();
+        for (Object[] row : userRepository.findPicturesReferencing(due.stream().map(StorageDeletion::getUrl).toList())) {
+            for (Object url : row) {
+                if (url != null) {
+                    referenced.add((String) url);
+                }
+            }
+        }
+
+        List<StorageDeletion> kept = new ArrayList<>();
+        List<StorageDeletion> unreferenced = new ArrayList<>();
+        for (StorageDeletion deletion : due) {
+            (referenced.contains(deletion.getUrl()) ? kept : unreferenced).add(deletion);
+        }
+        Map<String, String> failures = deleteFiles(unreferenced);
+
+        List<StorageDeletion> done = new ArrayList<>(kept);
+        List<StorageDeletion> failed = new ArrayList<>();
+        for (StorageDeletion deletion : unreferenced) {
+            String error = failures.get(deletion.getUrl());
+            if (error == null) {
+                done.add(deletion);
+            } else {
+                int attempts = deletion.getAttempts() + 1;
+                long backoff = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempts - 1, 20));
+                deletion.setAttempts(attempts);
+                deletion.setDueAt(now.plusNanos(TimeUnit.MILLISECONDS.toNanos(backoff)));
+                deletion.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+                failed.add(deletion);
+            }
+        }
+        storageDeletionRepository.deleteAllInBatch(done);
+        storageDeletionRepository.saveAll(failed);
+
+        int deleted = unreferenced.size() - failed.size();
+        profileImageCache.invalidate(unreferenced.stream()
+                .map(StorageDeletion::getUrl)
+                .filter(url -> !failures.containsKey(url))
+                .toList());
+        keptFiles.increment(kept.size());
+        deletedFiles.increment(deleted);
+        retriedFiles.increment(failed.size());
+        if (!failed.isEmpty()) {
+            log.warn("Deleted {} stored files, {} will be retried", deleted, failed.size());
+        }
+        return due.size();
+    }
+
+    private Map<String, String> deleteFiles(List<StorageDeletion> deletions) {
+        if (deletions.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            return storageService.deleteFiles(deletions.stream().map(StorageDeletion::getUrl).toList());
+        } catch (Exception e) {
+            Map<String, String> failures = new HashMap<>();
+            for (StorageDeletion deletion : deletions) {
+                failures.put(deletion.getUrl(), String.valueOf(e.getMessage()));
+            }
+            return failures;
+        }
+    }
+
+    private void updateBacklogMetrics() {
+        try {
+            backlogSize.set(storageDeletionRepository.count());
+            LocalDateTime oldest = storageDeletionRepository.findOldestCreatedAt();
+            oldestDeletionAgeSeconds.set(oldest != null ? Duration.between(oldest, LocalDateTime.now()).toSeconds() : 0);
+        } catch (Exception e) {
+            log.debug("Failed to refresh storage deletion metrics: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package org.example.userservice.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.userservice.dto.responses.StorageMigrationStatusDTO;
+import org.example.userservice.exception.storageException.StorageMigrationConflictException;
+import org.example.userservice.model.StorageMigrationCheckpoint;
+import org.example.userservice.model.User;
+import org.example.userservice.repository.StorageMigrationCheckpointRepository;
+import org.example.userservice.repository.UserPictureView;
+import org.example.userservice.repository.UserRepository;
+import org.example.userservice.service.serviceInterfaces.IStorageService;
+import org.example.userservice.util.HashingUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copies profile pictures that still live on local disk to the configured
+ * object storage and points the users at the copies. Users are walked in id
+ * order, one page per transaction; each page is uploaded with bounded
+ * concurrency and its URL rewrite is committed together with the
+ * checkpoint, so a crashed run resumes after the last finished page.
+ * Copies are named by the SHA-256 of their content, like new uploads, so
+ * an existing object of that name always holds the same bytes and uploads
+ * are idempotent. The checkpoint row doubles as a lease: only the instance
+ * holding it advances the migration. Local files are left in place.
+ */
+@Slf4j
+@Service
+public class StorageMigrationService {
+    private static final String CHECKPOINT_NAME = "local-to-object-storage";
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "jpg", "image/jpeg",
+            "jpeg", "image/jpeg",
+            "png", "image/png");
+
+    private final IStorageService storageService;
+    private final StorageGarbageCollector storageGarbageCollector;
+    private final LocalFileLayout fileLayout;
+    private final UserRepository userRepository;
+    private final StorageMigrationCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(r -> new Thread(r, "storage-migration"));
+    private final String instanceId = UUID.randomUUID().toString();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong runFiles = new AtomicLong();
+    private final AtomicLong runBytes = new AtomicLong();
+    private volatile long runStartNanos;
+
+    @Value("${app.storage.local.profile-folder:profile-pictures}")
+    private String profileFolder;
+
+    @Value("${app.storage.migration.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.storage.migration.concurrency:16}")
+    private int concurrency;
+
+    @Value("${app.storage.migration.lease-seconds:300}")
+    private long leaseSeconds;
+
+    public StorageMigrationService(IStorageService storageService,
+                                   StorageGarbageCollector storageGarbageCollector,
+                                   LocalFileLayout fileLayout,
+                                   UserRepository userRepository,
+                                   StorageMigrationCheckpointRepository checkpointRepository,
+                                   PlatformTransactionManager transactionManager) {
+        this.storageService = storageService;
+        this.storageGarbageCollector = storageGarbageCollector;
+        this.fileLayout = fileLayout;
+        this.userRepository = userRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    /**
+     * Starts a run in the background, continuing from the checkpoint unless
+     * a restart is asked for. A restart retries files that failed before.
+     */
+    public StorageMigrationStatusDTO start(boolean restart) {
+        if (storageService instanceof LocalStorageService) {
+            throw new StorageMigrationConflictException("Profile pictures are stored locally; there is nothing to migrate to");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new StorageMigrationConflictException("Storage migration is already running");
+        }
+        try {
+            createCheckpointIfAbsent();
+            transactionTemplate.executeWithoutResult(status -> {
+                StorageMigrationCheckpoint checkpoint = lockCheckpoint();
+                LocalDateTime now = LocalDateTime.now();
+                if (checkpoint.getOwner() != null && checkpoint.getLeaseExpiresAt() != null
+                        && checkpoint.getLeaseExpiresAt().isAfter(now)) {
+                    throw new StorageMigrationConflictException("Storage migration is already running on another instance");
+                }
+                if (restart) {
+                    checkpoint.setLastUserId(0);
+                    checkpoint.setMigratedUsers(0);
+                    checkpoint.setMigratedFiles(0);
+                    checkpoint.setFailedFiles(0);
+                }
+                checkpoint.setOwner(instanceId);
+                checkpoint.setLeaseExpiresAt(now.plusSeconds(leaseSeconds));
+                checkpoint.setStartedAt(now);
+                checkpoint.setCompletedAt(null);
+            });
+            runFiles.set(0);
+            runBytes.set(0);
+            runStartNanos = System.nanoTime();
+            runner.execute(this::run);
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        return getStatus();
+    }
+
+    public StorageMigrationStatusDTO getStatus() {
+        StorageMigrationCheckpoint checkpoint = checkpointRepository.findById(CHECKPOINT_NAME)
+                .orElseGet(() -> StorageMigrationCheckpoint.builder().name(CHECKPOINT_NAME).build());
+        double seconds = runStartNanos == 0 ? 0 : (System.nanoTime() - runStartNanos) / 1e9;
+        boolean leased = checkpoint.getOwner() != null && checkpoint.getLeaseExpiresAt() != null
+                && checkpoint.getLeaseExpiresAt().isAfter(LocalDateTime.now());
+        return StorageMigrationStatusDTO.builder()
+                .running(running.get() || leased)
+                .lastUserId(checkpoint.getLastUserId())
+                .migratedUsers(checkpoint.getMigratedUsers())
+                .migratedFiles(checkpoint.getMigratedFiles())
+                .failedFiles(checkpoint.getFailedFiles())
+                .migratedBytes(runBytes.get())
+                .filesPerSecond(seconds > 0 ? runFiles.get() / seconds : 0)
+                .megabytesPerSecond(seconds > 0 ? runBytes.get() / seconds / (1024 * 1024) : 0)
+                .startedAt(checkpoint.getStartedAt())
+                .completedAt(checkpoint.getCompletedAt())
+                .build();
+    }
+
+    private void run() {
+        String prefix = "/" + profileFolder + "/";
+        try {
+            long afterId = checkpointRepository.findById(CHECKPOINT_NAME)
+                    .map(StorageMigrationCheckpoint::getLastUserId)
+                    .orElse(0L);
+            List<UserPictureView> page;
+            do {
+                page = userRepository.findPicturesWithPrefix(prefix, afterId, PageRequest.of(0, batchSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+                List<UserPictureView> users = page;
+                Map<String, String> copies = copyAll(localUrls(users, prefix));
+                long lastUserId = users.get(users.size() - 1).getId();
+                int failed = countFailed(users, prefix, copies);
+                transactionTemplate.executeWithoutResult(status -> commitPage(users, copies, lastUserId, failed));
+                afterId = lastUserId;
+                double seconds = (System.nanoTime() - runStartNanos) / 1e9;
+                log.info("Storage migration reached user {}: {} files at {} files/s",
+                        lastUserId, runFiles.get(), String.format("%.1f", runFiles.get() / seconds));
+            } while (page.size() == batchSize && !Thread.currentThread().isInterrupted());
+
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> requireLease(lockCheckpoint())
+                    .setCompletedAt(LocalDateTime.now()));
+            StorageMigrationStatusDTO status = getStatus();
+            log.info("Storage migration finished: {} users, {} files, {} failed, {} files/s, {} MB/s",
+                    status.getMigratedUsers(), status.getMigratedFiles(), status.getFailedFiles(),
+                    String.format("%.1f", status.getFilesPerSecond()), String.format("%.2f", status.getMegabytesPerSecond()));
+        } catch (Exception e) {
+            log.error("Storage migration stopped: {}", e.getMessage(), e);
+        } finally {
+            releaseLease();
+            running.set(false);
+        }
+    }
+
+    private void createCheckpointIfAbsent() {
+        if (checkpointRepository.existsById(CHECKPOINT_NAME)) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> checkpointRepository.saveAndFlush(
+                    StorageMigrationCheckpoint.builder().name(CHECKPOINT_NAME).build()));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created it first
+        }
+    }
+
+    private StorageMigrationCheckpoint lockCheckpoint() {
+        return checkpointRepository.findByNameForUpdate(CHECKPOINT_NAME)
+                .orElseThrow(() -> new IllegalStateException("Storage migration checkpoint is missing"));
+    }
+
+    private StorageMigrationCheckpoint requireLease(StorageMigrationCheckpoint checkpoint) {
+        if (!instanceId.equals(checkpoint.getOwner())) {
+            throw new StorageMigrationConflictException("Storage migration lease was taken over by another instance");
+        }
+        return checkpoint;
+    }
+
+    private void releaseLease() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                StorageMigrationCheckpoint checkpoint = lockCheckpoint();
+                if (instanceId.equals(checkpoint.getOwner())) {
+                    checkpoint.setOwner(null);
+                    checkpoint.setLeaseExpiresAt(null);
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Failed to release the storage migration lease: {}", e.getMessage());
+        }
+    }
+
+    private static Set<String> localUrls(List<UserPictureView> page, String prefix) {
+        Set<String> urls = new LinkedHashSet<>();
+        for (UserPictureView user : page) {
+            for (String url : new String[]{user.getProfilePicture(), user.getProfilePictureThumb(), user.getProfilePictureMedium()}) {
+                if (url != null && url.startsWith(prefix)) {
+                    urls.add(url);
+                }
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * Uploads every file with at most {@code concurrency} uploads in flight
+     * and maps each local URL to its new one; failed files are left out.
+     */
+    private Map<String, String> copyAll(Set<String> urls) throws InterruptedException {
+        Map<String, String> copies = new ConcurrentHashMap<>();
+        Semaphore permits = new Semaphore(concurrency);
+        List<CompletableFuture<?>> uploads = new ArrayList<>();
+        for (String url : urls) {
+            permits.acquire();
+            String fileName = url.substring(url.lastIndexOf('/') + 1);
+            CompletableFuture<String> upload;
+            try {
+                byte[] content = Files.readAllBytes(locate(fileName));
+                // Never the legacy name: objects of that name from before content addressing hold other bytes
+                String copyName = HashingUtil.hashContent(content) + "." + extension(fileName);
+                // Identical content may already be stored under that name and be waiting for deletion
+                storageGarbageCollector.reserve(List.of(storageService.urlFor(copyName)));
+                upload = storageService.storeImmutableFileAsync(content, contentType(fileName), copyName)
+                        .whenComplete((newUrl, error) -> {
+                            if (error == null) {
+                                runFiles.incrementAndGet();
+                                runBytes.addAndGet(content.length);
+                            }
+                        });
+            } catch (IOException | RuntimeException e) {
+                upload = CompletableFuture.failedFuture(e);
+            }
+            uploads.add(upload.whenComplete((newUrl, error) -> {
+                permits.release();
+                if (error != null) {
+                    log.warn("Failed to migrate {}: {}", url, error.getMessage());
+                } else {
+                    copies.put(url, newUrl);
+                }
+            }));
+        }
+        CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new)).exceptionally(error -> null).join();
+        return copies;
+    }
+
+    private void commitPage(List<UserPictureView> page, Map<String, String> copies, long lastUserId, int failed) {
+        // Checkpoint first, then users: the same order as every other writer, which only locks users
+        StorageMigrationCheckpoint checkpoint = requireLease(lockCheckpoint());
+        int users = 0;
+        int files = 0;
+        for (User user : userRepository.findAllByIdInForUpdate(page.stream().map(UserPictureView::getId).toList())) {
+            // Only replace URLs that still hold the value that was copied; the user may have uploaded since
+            int replaced = 0;
+            String full = copies.get(user.getProfilePicture());
+            if (full != null) {
+                user.setProfilePicture(full);
+                replaced++;
+            }
+            String thumb = copies.get(user.getProfilePictureThumb());
+            if (thumb != null) {
+                user.setProfilePictureThumb(thumb);
+                replaced++;
+            }
+            String medium = copies.get(user.getProfilePictureMedium());
+            if (medium != null) {
+                user.setProfilePictureMedium(medium);
+                replaced++;
+            }
+            if (replaced > 0) {
+                users++;
+                files += replaced;
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        checkpoint.setLastUserId(lastUserId);
+        checkpoint.setMigratedUsers(checkpoint.getMigratedUsers() + users);
+        checkpoint.setMigratedFiles(checkpoint.getMigratedFiles() + files);
+        checkpoint.setFailedFiles(checkpoint.getFailedFiles() + failed);
+        checkpoint.setUpdatedAt(now);
+        checkpoint.setLeaseExpiresAt(now.plusSeconds(leaseSeconds));
+    }
+
+    private static int countFailed(List<UserPictureView> page, String prefix, Map<String, String> copies) {
+        int failed = 0;
+        for (String url : localUrls(page, prefix)) {
+            if (!copies.containsKey(url)) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    private Path locate(String fileName) {
+        Path sharded = fileLayout.pathOf(fileName);
+        return Files.exists(sharded) ? sharded : fileLayout.legacyPathOf(fileName);
+    }
+
+    private static String contentType(String fileName) {
+        return CONTENT_TYPES.getOrDefault(extension(fileName), "application/octet-stream");
+    }
+
+    private static String extension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 ? fileName.substring(dot + 1).toLowerCase() : "";
+    }
+}
@@ -0,0 +1,175 @@
+package org.example.userservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.userservice.dto.responses.UserChangeDTO;
+import org.example.userservice.dto.responses.UserChangesPageDTO;
+import org.example.userservice.enums.UserRoleEnum;
+import org.example.userservice.repository.UserChangeView;
+import org.example.userservice.repository.UserRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Incremental feed of user rows for services that keep a local replica.
+ * A PostgreSQL trigger stamps every written row with the id of the writing
+ * transaction, and pages are keyset queries on (change_txid, id); the
+ * cursor of the last row resumes the feed, and an empty cursor starts a
+ * full snapshot. Only rows written by transactions older than the oldest
+ * one still running are returned, so a transaction that commits late,
+ * however long it ran, cannot slip behind a cursor that was already
+ * handed out. Ordering relies on the database alone, not on pod clocks.
+ */
+@Slf4j
+@Service
+public class UserChangeFeedService {
+    private static final int MAX_LIMIT = 1000;
+
+    private static final String CREATE_STAMP_FUNCTION =
+            "CREATE OR REPLACE FUNCTION users_stamp_change_txid() RETURNS trigger AS $$ "
+                    + "BEGIN NEW.change_txid := txid_current(); RETURN NEW; END $$ LANGUAGE plpgsql";
+    private static final String COUNT_STAMP_TRIGGERS =
+            "SELECT COUNT(*) FROM pg_trigger WHERE tgname = 'users_change_txid' AND tgrelid = 'users'::regclass";
+    private static final String DROP_STAMP_TRIGGER = "DROP TRIGGER IF EXISTS users_change_txid ON users";
+    private static final String CREATE_STAMP_TRIGGER =
+            "CREATE TRIGGER users_change_txid BEFORE INSERT OR UPDATE ON users "
+                    + "FOR EACH ROW EXECUTE PROCEDURE users_stamp_change_txid()";
+    private static final String BACKFILL_CHANGE_TXID =
+            "UPDATE users SET change_txid = txid_current() WHERE change_txid IS NULL";
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public UserChangeFeedService(UserRepository userRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public UserChangesPageDTO getChanges(String cursor, int limit) {
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Cursor after = cursor == null || cursor.isBlank() ? new Cursor(0L, 0L) : Cursor.decode(cursor);
+        Long upTo = userRepository.findOldestRunningTxid();
+
+        List<UserChangeView> rows = userRepository.findChangesAfter(
+                after.txid(), after.id(), upTo, PageRequest.of(0, boundedLimit));
+        Map<Long, Set<UserRoleEnum>> roles = rolesOf(rows);
+
+        List<UserChangeDTO> changes = new ArrayList<>(rows.size());
+        for (UserChangeView row : rows) {
+            changes.add(UserChangeDTO.builder()
+                    .id(row.getId())
+                    .firstName(row.getFirstName())
+                    .lastName(row.getLastName())
+                    .walletAddress(row.getWalletAddress())
+                    .profilePicture(row.getProfilePicture())
+                    .roles(roles.getOrDefault(row.getId(), new HashSet<>()))
+                    .enabled(row.isEnabled())
+                    .rating(row.getRating())
+                    .score(row.getScore())
+                    .updatedAt(row.getUpdatedAt())
+                    .build());
+        }
+
+        Cursor next = rows.isEmpty()
+                ? after
+                : new Cursor(rows.get(rows.size() - 1).getChangeTxid(), rows.get(rows.size() - 1).getId());
+        return UserChangesPageDTO.builder()
+                .changes(changes)
+                .nextCursor(next.encode())
+                .hasMore(rows.size() == boundedLimit)
+                .build();
+    }
+
+    /**
+     * Installs the change_txid trigger and stamps rows written without it.
+     * The feed cannot work without the trigger, so failing to install it
+     * stops the startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepareChangeTracking() {
+        try {
+            int updated = userRepository.backfillUpdatedAt(LocalDateTime.now());
+            if (updated > 0) {
+                log.info("Backfilled updated_at for {} users", updated);
+            }
+        } catch (Exception e) {
+            log.error("Failed to backfill updated_at: {}", e.getMessage(), e);
+        }
+
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            log.warn("The user change feed needs PostgreSQL; {} does not stamp change_txid", database);
+            return;
+        }
+        try {
+            // DDL is transactional in PostgreSQL: no write can commit between dropping and creating the trigger
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute(CREATE_STAMP_FUNCTION);
+                Integer triggers = jdbcTemplate.queryForObject(COUNT_STAMP_TRIGGERS, Integer.class);
+                if (triggers == null || triggers == 0) {
+                    // Waits for an instance creating it at the same time, then replaces its trigger
+                    jdbcTemplate.execute(DROP_STAMP_TRIGGER);
+                    jdbcTemplate.execute(CREATE_STAMP_TRIGGER);
+                }
+            });
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Failed to install the change_txid trigger", e);
+        }
+        // Covers rows written before the trigger existed, including those written since startup
+        int stamped = jdbcTemplate.update(BACKFILL_CHANGE_TXID);
+        if (stamped > 0) {
+            log.info("Stamped change_txid for {} users", stamped);
+        }
+    }
+
+    private Map<Long, Set<UserRoleEnum>> rolesOf(List<UserChangeView> rows) {
+        Map<Long, Set<UserRoleEnum>> roles = new HashMap<>();
+        if (rows.isEmpty()) {
+            return roles;
+        }
+        List<Long> ids = rows.stream().map(UserChangeView::getId).toList();
+        for (Object[] row : userRepository.findRolesByIdIn(ids)) {
+            roles.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((UserRoleEnum) row[1]);
+        }
+        return roles;
+    }
+
+    private record Cursor(Long txid, Long id) {
+
+        String encode() {
+            String raw = txid + "," + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String value) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf(',');
+                return new Cursor(Long.parseLong(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid change feed cursor");
+            }
+        }
+    }
+}
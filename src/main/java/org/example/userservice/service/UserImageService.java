@@ -1,59 +1,264 @@
 package org.example.userservice.service;
 
-import lombok.RequiredArgsConstructor;
+import org.example.userservice.dto.responses.PresignedUploadDTO;
+import org.example.userservice.enums.ImageFormatEnum;
+import org.example.userservice.enums.ImageVariantEnum;
 import org.example.userservice.exception.userException.UserNotFoundException;
 import org.example.userservice.model.User;
 import org.example.userservice.repository.UserRepository;
+import org.example.userservice.service.ImageHeaderValidator.ImageHeader;
+import org.example.userservice.service.ProfileImageProcessor.ProcessedImage;
+import org.example.userservice.service.serviceInterfaces.IDirectUploadService;
+import org.example.userservice.service.serviceInterfaces.IDirectUploadService.StoredObject;
 import org.example.userservice.service.serviceInterfaces.IStorageService;
+import org.example.userservice.util.HashingUtil;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
 
-@Transactional
-@RequiredArgsConstructor
+/**
+ * Profile picture uploads. Decoding, encoding and storage run without a
+ * transaction, so no database connection is held while they take their
+ * time; only the final update of the user row is transactional.
+ */
 @Service
 public class UserImageService {
+    private static final Set<String> UPLOAD_EXTENSIONS = Set.of("jpeg", "jpg", "png");
+
+    private static final Map<String, String> STREAMED_EXTENSIONS = Map.of(
+            "image/jpeg", "jpg",
+            "image/jpg", "jpg",
+            "image/png", "png");
+
+    private static final Pattern DIRECT_UPLOAD_KEY =
+            Pattern.compile("profile_(\\d+)_[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}\\.(jpg|png)");
+
     private final IStorageService  storageService;
+    private final Optional<IDirectUploadService> directUploadService;
+    private final ProfileImageProcessor imageProcessor;
+    private final ImageHeaderValidator imageHeaderValidator;
+    private final StorageGarbageCollector storageGarbageCollector;
+    private final ProfileImageCache profileImageCache;
     private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.storage.max-upload-bytes:5242880}")
+    private long maxUploadBytes;
+
+    public UserImageService(IStorageService storageService,
+                            Optional<IDirectUploadService> directUploadService,
+                            ProfileImageProcessor imageProcessor,
+                            ImageHeaderValidator imageHeaderValidator,
+                            StorageGarbageCollector storageGarbageCollector,
+                            ProfileImageCache profileImageCache,
+                            UserRepository userRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.storageService = storageService;
+        this.directUploadService = directUploadService;
+        this.imageProcessor = imageProcessor;
+        this.imageHeaderValidator = imageHeaderValidator;
+        this.storageGarbageCollector = storageGarbageCollector;
+        this.profileImageCache = profileImageCache;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     public String uploadProfilePicture(MultipartFile file, Long userId) {
-        User user  = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException("User not found"));
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
         String extension = StringUtils.getFilenameExtension(
                 Objects.requireNonNullElse(file.getOriginalFilename(), "")
         );
         if (extension == null) {
             throw new IllegalArgumentException("File must have an extension");
         }
-        extension = extension.toLowerCase();
-        if (!extension.equals("jpeg") && !extension.equals("jpg") && !extension.equals("png") && !extension.equals("img")) {
-            throw new IllegalArgumentException("Only JPEG (.jpg, .jpeg), PNG (.png) and IMG (.img) files are allowed");
-        }
-        String contentType = file.getContentType();
-        if (extension.equals("img")) {
-        } else {
-            if (contentType == null ||
-                    !(contentType.equalsIgnoreCase("image/jpeg") || 
-                      contentType.equalsIgnoreCase("image/jpg") || 
-                      contentType.equalsIgnoreCase("image/png"))) {
-                throw new IllegalArgumentException("File MIME type must be image/jpeg, image/jpg, or image/png");
+        if (!UPLOAD_EXTENSIONS.contains(extension.toLowerCase())) {
+            throw new IllegalArgumentException("Only JPEG (.jpg, .jpeg) and PNG (.png) files are allowed");
+        }
+        requireUploadableImage(file.getContentType(), file.getSize());
+        Map<ImageVariantEnum, ProcessedImage> images;
+        try {
+            // The extension and MIME type are the client's claim; the header bytes decide
+            InputStream content = new BufferedInputStream(file.getInputStream());
+            imageHeaderValidator.validate(content);
+            images = imageProcessor.process(content);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read uploaded file", e);
+        }
+        return applyProfilePicture(userId, storeVariants(userId, images).join());
+    }
+
+    /**
+     * Processes a raw image body read straight from the request stream. The
+     * future completes once storage has every variant and the user row
+     * points at them; no request thread is held meanwhile.
+     */
+    public CompletableFuture<String> uploadProfilePicture(InputStream content, long contentLength,
+                                                          String contentType, Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
+        requireUploadableImage(contentType, contentLength);
+        InputStream buffered = new BufferedInputStream(content);
+        // Reads only the header on the request thread; a bad upload is refused before any decoding starts
+        imageHeaderValidator.validate(buffered);
+        return imageProcessor.processAsync(buffered)
+                .thenCompose(images -> storeVariants(userId, images))
+                .thenApply(urls -> applyProfilePicture(userId, urls));
+    }
+
+    /**
+     * First step of a direct upload: a presigned PUT for a fresh object of
+     * exactly the announced type and size, valid for a short time.
+     */
+    public PresignedUploadDTO createProfilePictureUploadUrl(Long userId, String contentType, long contentLength) {
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
+        String extension = requireUploadableImage(contentType, contentLength);
+        String fileName = "profile_" + userId + "_" + UUID.randomUUID() + "." + extension;
+        PresignedUploadDTO upload = directUploadService()
+                .createUploadUrl(fileName, contentType.toLowerCase(), contentLength);
+        // An upload that is never completed would otherwise stay in the bucket for good
+        storageGarbageCollector.expireUnclaimed(storageService.urlFor(fileName), upload.getExpiresAt());
+        return upload;
+    }
+
+    /**
+     * Second step of a direct upload: checks that the object the client
+     * uploaded belongs to the user and is an acceptable image, then makes it
+     * the profile picture. The bytes never reach this service, so no smaller
+     * variants are produced and the DTOs fall back to the full image.
+     */
+    public String completeProfilePictureUpload(Long userId, String key) {
+        var matcher = DIRECT_UPLOAD_KEY.matcher(key);
+        if (!matcher.matches() || !matcher.group(1).equals(userId.toString())) {
+            throw new IllegalArgumentException("Upload key does not belong to this user");
+        }
+        // Keeps the expiry of an unclaimed upload from deleting it while it is being completed
+        storageGarbageCollector.reserve(List.of(storageService.urlFor(key)));
+        StoredObject object = directUploadService().findObject(key)
+                .orElseThrow(() -> new IllegalArgumentException("No uploaded file found for key: " + key));
+        try {
+            requireUploadableImage(object.contentType(), object.contentLength());
+            byte[] head = directUploadService().readObjectHead(key, ImageHeaderValidator.MAX_HEADER_BYTES);
+            ImageHeader header = imageHeaderValidator.validate(new ByteArrayInputStream(head));
+            // The object is served with the type it was uploaded with, so that type has to be true
+            if (!header.format().getContentType().equals(normalizeContentType(object.contentType()))) {
+                throw new IllegalArgumentException("File content does not match its MIME type " + object.contentType());
             }
+        } catch (IllegalArgumentException e) {
+            storageGarbageCollector.discard(object.url());
+            throw e;
         }
-        String fileName = "profile_" + userId.toString() + "." + extension;
-        String url = storageService.storeFile(file, fileName);
-        Optional.ofNullable(user.getProfilePicture()).ifPresent(storageService::deleteFile);
-        user.setProfilePicture(url);
-        userRepository.save(user);
-        return url;
+        Map<ImageVariantEnum, String> urls = new EnumMap<>(ImageVariantEnum.class);
+        urls.put(ImageVariantEnum.FULL, object.url());
+        return applyProfilePicture(userId, urls);
     }
 
+    @Transactional
     public void deleteProfilePicture(Long userId) {
         User user  = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException("User not found"));
-        storageService.deleteFile(user.getProfilePicture());
+        Set<String> previous = pictureUrls(user);
+        storageGarbageCollector.release(previous);
+        profileImageCache.invalidate(previous);
         user.setProfilePicture(null);
+        user.setProfilePictureThumb(null);
+        user.setProfilePictureMedium(null);
         userRepository.save(user);
     }
+
+    private IDirectUploadService directUploadService() {
+        return directUploadService.orElseThrow(() ->
+                new IllegalArgumentException("Direct uploads are not available with the configured storage backend"));
+    }
+
+    private String requireUploadableImage(String contentType, long contentLength) {
+        String extension = contentType != null ? STREAMED_EXTENSIONS.get(contentType.toLowerCase()) : null;
+        if (extension == null) {
+            throw new IllegalArgumentException("File MIME type must be image/jpeg, image/jpg, or image/png");
+        }
+        if (contentLength <= 0 || contentLength > maxUploadBytes) {
+            throw new IllegalArgumentException("Content-Length must be between 1 and " + maxUploadBytes + " bytes");
+        }
+        return extension;
+    }
+
+    private static String normalizeContentType(String contentType) {
+        String normalized = contentType.toLowerCase();
+        return normalized.equals("image/jpg") ? ImageFormatEnum.JPEG.getContentType() : normalized;
+    }
+
+    private CompletableFuture<Map<ImageVariantEnum, String>> storeVariants(Long userId,
+                                                                           Map<ImageVariantEnum, ProcessedImage> images) {
+        // Named by content, so the URL never changes meaning and identical images are stored once
+        Map<ImageVariantEnum, String> fileNames = new EnumMap<>(ImageVariantEnum.class);
+        images.forEach((variant, image) ->
+                fileNames.put(variant, HashingUtil.hashContent(image.data()) + "." + image.extension()));
+        // An existing file is reused as is, so it must not be deleted before this upload commits
+        storageGarbageCollector.reserve(fileNames.values().stream().map(storageService::urlFor).toList());
+
+        Map<ImageVariantEnum, CompletableFuture<String>> uploads = new EnumMap<>(ImageVariantEnum.class);
+        images.forEach((variant, image) -> uploads.put(variant,
+                storageService.storeImmutableFileAsync(image.data(), image.contentType(), fileNames.get(variant))));
+        return CompletableFuture.allOf(uploads.values().toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    Map<ImageVariantEnum, String> urls = new EnumMap<>(ImageVariantEnum.class);
+                    uploads.forEach((variant, upload) -> urls.put(variant, upload.join()));
+                    return urls;
+                });
+    }
+
+    /**
+     * Points the user at the stored variants and releases the previous
+     * files in one transaction. Streamed uploads call this from a storage
+     * client thread, where no transaction is open, so it begins its own.
+     */
+    private String applyProfilePicture(Long userId, Map<ImageVariantEnum, String> urls) {
+        return transactionTemplate.execute(status -> {
+            User user  = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException("User not found"));
+            Set<String> previous = pictureUrls(user);
+            // Pictures stored before content addressing were overwritten in place, so drop the new names as well
+            profileImageCache.invalidate(urls.values());
+            previous.removeAll(urls.values());
+            storageGarbageCollector.release(previous);
+            profileImageCache.invalidate(previous);
+
+            user.setProfilePicture(urls.get(ImageVariantEnum.FULL));
+            user.setProfilePictureThumb(urls.get(ImageVariantEnum.THUMB));
+            user.setProfilePictureMedium(urls.get(ImageVariantEnum.MEDIUM));
+            userRepository.save(user);
+            return urls.get(ImageVariantEnum.FULL);
+        });
+    }
+
+    private static Set<String> pictureUrls(User user) {
+        Set<String> urls = new HashSet<>();
+        for (String url : new String[]{user.getProfilePicture(), user.getProfilePictureThumb(), user.getProfilePictureMedium()}) {
+            if (url != null) {
+                urls.add(url);
+            }
+        }
+        return urls;
+    }
 }
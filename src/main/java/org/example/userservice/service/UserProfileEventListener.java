@@ -0,0 +1,51 @@
+package org.example.userservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.userservice.config.UserProfileProducer;
+import org.example.userservice.dto.requests.UserProfileUpdateRequestDTO;
+import org.example.userservice.event.UserProfileChangedEvent;
+import org.example.userservice.exception.userException.UserNotFoundException;
+import org.example.userservice.model.User;
+import org.example.userservice.repository.UserRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+
+/**
+ * Turns profile change events into outbox snapshots just before the
+ * transaction commits. Writing the outbox row is a local insert; the broker
+ * is only contacted by the relay after commit, and a rolled back change
+ * never produces an event.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserProfileEventListener {
+    private final UserRepository userRepository;
+    private final UserProfileProducer userProfileProducer;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onProfileChanged(UserProfileChangedEvent event) {
+        User user = userRepository.findById(event.userId()).orElseThrow(
+                () -> new UserNotFoundException("User not found with id: " + event.userId()));
+
+        // Bumped by an UPDATE in the user's own transaction; concurrent changes wait on the row lock
+        userRepository.incrementProfileVersion(user.getId());
+        long version = userRepository.findProfileVersion(user.getId());
+        // Keeps the loaded entity from writing its stale version back
+        user.setProfileVersion(version);
+
+        UserProfileUpdateRequestDTO updateRequest = new UserProfileUpdateRequestDTO();
+        updateRequest.setUserId(user.getId().toString());
+        updateRequest.setVersion(version);
+        // Derived from the row, so a later snapshot never downgrades an earlier one
+        updateRequest.setComplete(user.getWalletAddress() != null && !user.getWalletAddress().isEmpty());
+        updateRequest.setWalletAddress(user.getWalletAddress());
+        updateRequest.setRoles(user.getRoles() != null ? new HashSet<>(user.getRoles()) : new HashSet<>());
+        updateRequest.setEnabled(user.isEnabled());
+        updateRequest.setUpdatedAt(LocalDateTime.now());
+        userProfileProducer.sendUserProfileUpdate(updateRequest);
+    }
+}
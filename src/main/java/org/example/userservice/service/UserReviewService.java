@@ -0,0 +1,149 @@
+package org.example.userservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.userservice.dto.requests.UserReviewEventDTO;
+import org.example.userservice.repository.ProcessedEventRepository;
+import org.example.userservice.repository.UserReviewBatchRepository;
+import org.example.userservice.repository.UserReviewBatchRepository.UserReviewDelta;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies review and score-delta events coming from the booking service.
+ * A consumer batch is deduplicated on event id, coalesced per user and
+ * written as one set of batched increments in a single transaction.
+ */
+@Slf4j
+@Service
+public class UserReviewService {
+    private final ProcessedEventRepository processedEventRepository;
+    private final UserReviewBatchRepository userReviewBatchRepository;
+    private final HostRankingService hostRankingService;
+
+    private final Counter appliedEvents;
+    private final Counter duplicateEvents;
+    private final Counter invalidEvents;
+    private final Timer consumerLag;
+    private final AtomicLong lastBatchMaxLagMillis = new AtomicLong();
+
+    @Value("${app.review-consumer.processed-event-retention-days:7}")
+    private long processedEventRetentionDays;
+
+    public UserReviewService(ProcessedEventRepository processedEventRepository,
+                             UserReviewBatchRepository userReviewBatchRepository,
+                             HostRankingService hostRankingService,
+                             MeterRegistry meterRegistry) {
+        this.processedEventRepository = processedEventRepository;
+        this.userReviewBatchRepository = userReviewBatchRepository;
+        this.hostRankingService = hostRankingService;
+        this.appliedEvents = Counter.builder("user.review.events").tag("result", "applied").register(meterRegistry);
+        this.duplicateEvents = Counter.builder("user.review.events").tag("result", "duplicate").register(meterRegistry);
+        this.invalidEvents = Counter.builder("user.review.events").tag("result", "invalid").register(meterRegistry);
+        this.consumerLag = Timer.builder("user.review.consumer.lag")
+                .description("Time between a review event occurring and being applied")
+                .register(meterRegistry);
+        Gauge.builder("user.review.consumer.lag.max", lastBatchMaxLagMillis, AtomicLong::get)
+                .description("Largest event lag in the most recent batch, in milliseconds")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Transactional
+    public void applyBatch(List<UserReviewEventDTO> events) {
+        Map<String, UserReviewEventDTO> byEventId = new LinkedHashMap<>();
+        for (UserReviewEventDTO event : events) {
+            if (!isValid(event)) {
+                invalidEvents.increment();
+                log.warn("Discarding malformed review event: {}", event);
+                continue;
+            }
+            if (byEventId.putIfAbsent(event.getEventId(), event) != null) {
+                duplicateEvents.increment();
+            }
+        }
+        if (byEventId.isEmpty()) {
+            return;
+        }
+
+        Set<String> alreadyProcessed = processedEventRepository.findExistingEventIds(byEventId.keySet());
+        alreadyProcessed.forEach(byEventId::remove);
+        duplicateEvents.increment(alreadyProcessed.size());
+        if (byEventId.isEmpty()) {
+            return;
+        }
+
+        Map<Long, UserReviewDelta> deltas = new HashMap<>();
+        for (UserReviewEventDTO event : byEventId.values()) {
+            UserReviewDelta delta = toDelta(event);
+            deltas.merge(delta.userId(), delta, (a, b) -> new UserReviewDelta(
+                    a.userId(),
+                    a.scoreDelta() + b.scoreDelta(),
+                    a.ratingSum() + b.ratingSum(),
+                    a.ratingCount() + b.ratingCount()));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        // Inserting the ids first makes a concurrent consumer of the same events fail on the primary key
+        userReviewBatchRepository.insertProcessedEvents(byEventId.keySet(), now);
+        userReviewBatchRepository.applyDeltas(new ArrayList<>(deltas.values()), now);
+        hostRankingService.onRatingsChanged(deltas.keySet());
+
+        appliedEvents.increment(byEventId.size());
+        recordLag(byEventId.values(), now);
+    }
+
+    @Scheduled(cron = "${app.review-consumer.cleanup-cron:0 0 3 * * *}")
+    public void purgeProcessedEvents() {
+        int removed = processedEventRepository.deleteProcessedBefore(
+                LocalDateTime.now().minusDays(processedEventRetentionDays));
+        log.info("Purged {} processed review event ids", removed);
+    }
+
+    private boolean isValid(UserReviewEventDTO event) {
+        if (event == null || event.getEventId() == null || event.getEventId().isBlank() || event.getUserId() == null) {
+            return false;
+        }
+        if (event.getRating() != null && (event.getRating().isNaN() || event.getRating().isInfinite())) {
+            return false;
+        }
+        return event.getRating() != null || event.getScoreDelta() != null;
+    }
+
+    private UserReviewDelta toDelta(UserReviewEventDTO event) {
+        int scoreDelta = event.getScoreDelta() != null ? event.getScoreDelta() : 0;
+        double ratingSum = event.getRating() != null ? event.getRating() : 0;
+        int ratingCount = event.getRating() != null ? 1 : 0;
+        return new UserReviewDelta(event.getUserId(), scoreDelta, ratingSum, ratingCount);
+    }
+
+    private void recordLag(Iterable<UserReviewEventDTO> events, LocalDateTime now) {
+        long maxLag = 0;
+        for (UserReviewEventDTO event : events) {
+            if (event.getOccurredAt() == null) {
+                continue;
+            }
+            Duration lag = Duration.between(event.getOccurredAt(), now);
+            if (!lag.isNegative()) {
+                consumerLag.record(lag);
+                maxLag = Math.max(maxLag, lag.toMillis());
+            }
+        }
+        lastBatchMaxLagMillis.set(maxLag);
+    }
+}
@@ -1,16 +1,19 @@
 package org.example.userservice.service;
 
 import lombok.RequiredArgsConstructor;
-import org.example.userservice.config.UserProfileProducer;
 import org.example.userservice.dto.requests.UpdateUserRequestDTO;
-import org.example.userservice.dto.requests.UserProfileUpdateRequestDTO;
 import org.example.userservice.dto.responses.AdminUserResponseDTO;
 import org.example.userservice.dto.responses.UserMeResponseDTO;
 import org.example.userservice.dto.responses.UserPublicProfileResponseDTO;
 import org.example.userservice.enums.UserRoleEnum;
+import org.example.userservice.event.UserProfileChangedEvent;
 import org.example.userservice.exception.userException.UserNotFoundException;
+import org.example.userservice.exception.userException.WalletAddressAlreadyInUseException;
 import org.example.userservice.model.User;
 import org.example.userservice.repository.UserRepository;
+import org.example.userservice.util.WalletAddressUtil;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.HashSet;
@@ -24,7 +27,10 @@ import java.util.stream.Collectors;
 public class UserService {
     private final UserRepository userRepository;
     private final UserValidationService userValidationService;
-    private final UserProfileProducer userProfileProducer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AdminStatsService adminStatsService;
+    private final HostRankingService hostRankingService;
+    private final WalletLookupService walletLookupService;
 
     public UserMeResponseDTO findMeById(Long id) {
         User user = findById(id);
@@ -38,6 +44,8 @@ public class UserService {
                 user.getLastName(),
                 user.getEmail(),
                 user.getProfilePicture(),
+                pictureVariant(user.getProfilePictureThumb(), user),
+                pictureVariant(user.getProfilePictureMedium(), user),
                 user.getBirthday(),
                 user.getPhoneNumber(),
                 walletAddr,
@@ -51,6 +59,8 @@ public class UserService {
         return UserPublicProfileResponseDTO
                 .builder()
                 .profilePicture(user.getProfilePicture())
+                .profilePictureThumb(pictureVariant(user.getProfilePictureThumb(), user))
+                .profilePictureMedium(pictureVariant(user.getProfilePictureMedium(), user))
                 .firstName(user.getFirstName())
                 .lastName(user.getLastName())
                 .phoneNumber(user.getPhoneNumber())
@@ -78,20 +88,18 @@ public class UserService {
         nonEmpty(input.getLastName()).ifPresent(user::setLastName);
 
         if (input.getWalletAddress() != null) {
-            String newWalletAddress = input.getWalletAddress().trim();
-
-            if (!newWalletAddress.isEmpty() && !newWalletAddress.matches("^0x[a-fA-F0-9]{40}$")) {
-                throw new IllegalArgumentException(
-                        "Wallet address must be a valid Ethereum address (0x followed by 40 hex characters)");
-            }
-
-            String processedWalletAddress = newWalletAddress.isEmpty() ? null : newWalletAddress;
+            String processedWalletAddress = WalletAddressUtil.normalize(input.getWalletAddress());
 
             String oldProcessed = (oldWalletAddress != null && !oldWalletAddress.trim().isEmpty())
                     ? oldWalletAddress.trim()
                     : null;
             if (!java.util.Objects.equals(processedWalletAddress, oldProcessed)) {
+                if (processedWalletAddress != null
+                        && userRepository.existsByWalletAddressAndIdNot(processedWalletAddress, id)) {
+                    throw new WalletAddressAlreadyInUseException("Wallet address is already linked to another account");
+                }
                 user.setWalletAddress(processedWalletAddress);
+                walletLookupService.evict(oldProcessed, processedWalletAddress);
                 walletAddressChanged = true;
             }
         }
@@ -102,16 +110,18 @@ public class UserService {
                     user.setBirthday(b);
                 });
 
-        userRepository.save(user);
+        try {
+            // Two users claiming the same address at once both pass the check above; the unique index decides
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (walletAddressChanged) {
+                throw new WalletAddressAlreadyInUseException("Wallet address is already linked to another account");
+            }
+            throw e;
+        }
 
         if (walletAddressChanged) {
-            try {
-                UserProfileUpdateRequestDTO updateRequest = new UserProfileUpdateRequestDTO();
-                updateRequest.setUserId(id.toString());
-                updateRequest.setComplete(user.getWalletAddress() != null && !user.getWalletAddress().isEmpty());
-                userProfileProducer.sendUserProfileUpdate(updateRequest);
-            } catch (Exception e) {
-            }
+            eventPublisher.publishEvent(new UserProfileChangedEvent(id));
         }
     }
 
@@ -120,6 +130,8 @@ public class UserService {
                 .stream()
                 .map(user -> UserPublicProfileResponseDTO.builder()
                         .profilePicture(user.getProfilePicture())
+                        .profilePictureThumb(pictureVariant(user.getProfilePictureThumb(), user))
+                        .profilePictureMedium(pictureVariant(user.getProfilePictureMedium(), user))
                         .firstName(user.getFirstName())
                         .lastName(user.getLastName())
                         .phoneNumber(user.getPhoneNumber())
@@ -142,6 +154,8 @@ public class UserService {
                             .lastName(user.getLastName())
                             .email(user.getEmail())
                             .profilePicture(user.getProfilePicture())
+                            .profilePictureThumb(pictureVariant(user.getProfilePictureThumb(), user))
+                            .profilePictureMedium(pictureVariant(user.getProfilePictureMedium(), user))
                             .birthday(user.getBirthday())
                             .phoneNumber(user.getPhoneNumber())
                             .walletAddress(walletAddr)
@@ -162,66 +176,94 @@ public class UserService {
     @Transactional
     public void addHostRole(Long id) {
         User user = findById(id);
+        Set<UserRoleEnum> oldRoles = currentRoles(user);
 
         Set<UserRoleEnum> newRoles = new HashSet<>();
         newRoles.add(UserRoleEnum.HOST);
         user.setRoles(newRoles);
         userRepository.save(user);
-
-        try {
-            UserProfileUpdateRequestDTO updateRequest = new UserProfileUpdateRequestDTO();
-            updateRequest.setUserId(id.toString());
-            updateRequest.setComplete(false);
-            userProfileProducer.sendUserProfileUpdate(updateRequest);
-        } catch (Exception e) {
-        }
+        adminStatsService.onRolesChanged(oldRoles, newRoles);
+        hostRankingService.onUserChanged(user);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(id));
     }
 
     @Transactional
     public void removeHostRole(Long id) {
         User user = findById(id);
-        Set<UserRoleEnum> roles = user.getRoles() != null ? new HashSet<>(user.getRoles()) : new HashSet<>();
+        Set<UserRoleEnum> oldRoles = currentRoles(user);
+        Set<UserRoleEnum> roles = new HashSet<>(oldRoles);
         roles.remove(UserRoleEnum.HOST);
         if (roles.isEmpty()) {
             roles.add(UserRoleEnum.TENANT);
         }
         user.setRoles(roles);
         userRepository.save(user);
+        adminStatsService.onRolesChanged(oldRoles, roles);
+        hostRankingService.onUserChanged(user);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(id));
     }
 
     @Transactional
     public void addAdminRole(Long id) {
         User user = findById(id);
-        Set<UserRoleEnum> roles = user.getRoles() != null ? new HashSet<>(user.getRoles()) : new HashSet<>();
+        Set<UserRoleEnum> oldRoles = currentRoles(user);
+        Set<UserRoleEnum> roles = new HashSet<>(oldRoles);
         roles.add(UserRoleEnum.ADMIN);
         user.setRoles(roles);
         userRepository.save(user);
+        adminStatsService.onRolesChanged(oldRoles, roles);
+        hostRankingService.onUserChanged(user);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(id));
     }
 
     @Transactional
     public void removeAdminRole(Long id) {
         User user = findById(id);
-        Set<UserRoleEnum> roles = user.getRoles() != null ? new HashSet<>(user.getRoles()) : new HashSet<>();
+        Set<UserRoleEnum> oldRoles = currentRoles(user);
+        Set<UserRoleEnum> roles = new HashSet<>(oldRoles);
         roles.remove(UserRoleEnum.ADMIN);
         if (roles.isEmpty()) {
             roles.add(UserRoleEnum.TENANT);
         }
         user.setRoles(roles);
         userRepository.save(user);
+        adminStatsService.onRolesChanged(oldRoles, roles);
+        hostRankingService.onUserChanged(user);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(id));
     }
 
     @Transactional
     public void enableUser(Long id) {
         User user = findById(id);
+        boolean wasEnabled = user.isEnabled();
         user.setEnabled(true);
         userRepository.save(user);
+        adminStatsService.onEnabledChanged(wasEnabled, true);
+        hostRankingService.onUserChanged(user);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(id));
     }
 
     @Transactional
     public void disableUser(Long id) {
         User user = findById(id);
+        boolean wasEnabled = user.isEnabled();
         user.setEnabled(false);
         userRepository.save(user);
+        adminStatsService.onEnabledChanged(wasEnabled, false);
+        hostRankingService.onUserChanged(user);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(id));
+    }
+
+    /**
+     * Smaller variants are missing for pictures stored before variants
+     * existed and for direct uploads; those fall back to the full image.
+     */
+    private static String pictureVariant(String variantUrl, User user) {
+        return variantUrl != null ? variantUrl : user.getProfilePicture();
+    }
+
+    private Set<UserRoleEnum> currentRoles(User user) {
+        return user.getRoles() != null ? new HashSet<>(user.getRoles()) : new HashSet<>();
     }
 
     private Optional<String> nonEmpty(String value) {
@@ -0,0 +1,213 @@
+package org.example.userservice.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Iterables;
+import lombok.extern.slf4j.Slf4j;
+import org.example.userservice.dto.responses.WalletConflictDTO;
+import org.example.userservice.dto.responses.WalletOwnerDTO;
+import org.example.userservice.event.UserProfileChangedEvent;
+import org.example.userservice.exception.userException.UserNotFoundException;
+import org.example.userservice.model.User;
+import org.example.userservice.repository.UserRepository;
+import org.example.userservice.repository.WalletOwnerView;
+import org.example.userservice.util.WalletAddressUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.example.userservice.util.TransactionHooks.afterCommit;
+
+/**
+ * Resolves on-chain wallet addresses to users. Results, including misses,
+ * are cached for a bounded time; local wallet changes evict their entries
+ * after commit, other instances converge once the entry expires.
+ */
+@Slf4j
+@Service
+public class WalletLookupService {
+    private static final int QUERY_CHUNK_SIZE = 1000;
+    private static final String CREATE_WALLET_INDEX =
+            "CREATE UNIQUE INDEX IF NOT EXISTS uk_users_wallet_address ON users (wallet_address)";
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Cache<String, Optional<Long>> ownerCache;
+
+    public WalletLookupService(UserRepository userRepository,
+                               JdbcTemplate jdbcTemplate,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${app.wallet-lookup.cache-size:100000}") long cacheSize,
+                               @Value("${app.wallet-lookup.cache-ttl-seconds:300}") long cacheTtlSeconds) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.ownerCache = CacheBuilder.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .build();
+    }
+
+    public WalletOwnerDTO findByWallet(String address) {
+        String normalized = WalletAddressUtil.normalize(address);
+        if (normalized == null) {
+            throw new IllegalArgumentException("Wallet address is required");
+        }
+        Long userId = findUserIds(Set.of(normalized)).get(normalized);
+        if (userId == null) {
+            throw new UserNotFoundException("User not found with wallet address: " + normalized);
+        }
+        return WalletOwnerDTO.builder()
+                .userId(userId)
+                .walletAddress(normalized)
+                .build();
+    }
+
+    /**
+     * Maps each known address, in normalized form, to its owner. Invalid and
+     * unknown addresses are left out of the result.
+     */
+    public Map<String, Long> findByWallets(Collection<String> addresses) {
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String address : addresses) {
+            if (address != null && WalletAddressUtil.isValid(address.trim())) {
+                normalized.add(WalletAddressUtil.normalize(address));
+            }
+        }
+        return findUserIds(normalized);
+    }
+
+    public void evict(String... addresses) {
+        List<String> keys = new ArrayList<>();
+        for (String address : addresses) {
+            if (address != null) {
+                keys.add(address);
+            }
+        }
+        afterCommit(() -> ownerCache.invalidateAll(keys));
+    }
+
+    /**
+     * Brings stored addresses to their normalized form and creates the
+     * unique index, which neither blank values nor addresses differing in
+     * case could satisfy. Addresses shared by several users are left alone
+     * and reported, and the index waits until {@link #resolveConflicts()}
+     * has run. Any other failure stops the startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void normalizeStoredAddresses() {
+        LocalDateTime now = LocalDateTime.now();
+        int cleared = userRepository.clearBlankWalletAddresses(now);
+        int normalized = userRepository.normalizeWalletAddresses(now);
+        if (cleared > 0 || normalized > 0) {
+            log.info("Normalized stored wallet addresses: {} blank cleared, {} lowercased", cleared, normalized);
+        }
+
+        List<WalletConflictDTO> conflicts = findConflicts();
+        if (!conflicts.isEmpty()) {
+            log.error("{} wallet addresses are linked to several accounts; the unique index is not created "
+                    + "until they are resolved through POST /api/v1/users/admin/wallet-conflicts/resolve: {}",
+                    conflicts.size(), describe(conflicts));
+            return;
+        }
+        jdbcTemplate.execute(CREATE_WALLET_INDEX);
+    }
+
+    /** Normalized addresses that more than one user has linked. */
+    public List<WalletConflictDTO> findConflicts() {
+        Map<String, List<Long>> owners = new LinkedHashMap<>();
+        for (WalletOwnerView owner : userRepository.findConflictingWalletOwners()) {
+            owners.computeIfAbsent(owner.getWalletAddress(), address -> new ArrayList<>()).add(owner.getId());
+        }
+        List<WalletConflictDTO> conflicts = new ArrayList<>();
+        owners.forEach((address, userIds) -> conflicts.add(WalletConflictDTO.builder()
+                .walletAddress(address)
+                .userIds(userIds)
+                .build()));
+        return conflicts;
+    }
+
+    /**
+     * One-off resolution of the conflicts reported at startup: the user that
+     * registered first keeps the address, the others are unlinked like a
+     * user removing it themselves, with a profile event and a cache eviction
+     * each. Afterwards the addresses are normalized and the unique index is
+     * created. Returns the conflicts as they were before.
+     */
+    @Transactional
+    public List<WalletConflictDTO> resolveConflicts() {
+        List<WalletConflictDTO> conflicts = findConflicts();
+        for (WalletConflictDTO conflict : conflicts) {
+            List<Long> userIds = conflict.getUserIds();
+            for (Long userId : userIds.subList(1, userIds.size())) {
+                User user = userRepository.findById(userId).orElseThrow(
+                        () -> new UserNotFoundException("User not found with id: " + userId));
+                evict(user.getWalletAddress(), conflict.getWalletAddress());
+                user.setWalletAddress(null);
+                eventPublisher.publishEvent(new UserProfileChangedEvent(userId));
+                log.warn("Unlinked wallet address {} from user {}; it stays with user {}",
+                        conflict.getWalletAddress(), userId, userIds.get(0));
+            }
+        }
+        userRepository.flush();
+        normalizeStoredAddresses();
+        return conflicts;
+    }
+
+    private static String describe(List<WalletConflictDTO> conflicts) {
+        StringBuilder description = new StringBuilder();
+        for (WalletConflictDTO conflict : conflicts) {
+            if (!description.isEmpty()) {
+                description.append(", ");
+            }
+            description.append(conflict.getWalletAddress()).append(" -> users ").append(conflict.getUserIds());
+        }
+        return description.toString();
+    }
+
+    private Map<String, Long> findUserIds(Set<String> addresses) {
+        Map<String, Long> result = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        Map<String, Optional<Long>> cached = ownerCache.getAllPresent(addresses);
+        for (String address : addresses) {
+            Optional<Long> owner = cached.get(address);
+            if (owner == null) {
+                misses.add(address);
+            } else {
+                owner.ifPresent(id -> result.put(address, id));
+            }
+        }
+
+        for (List<String> chunk : Iterables.partition(misses, QUERY_CHUNK_SIZE)) {
+            Map<String, Long> found = new HashMap<>();
+            for (WalletOwnerView owner : userRepository.findWalletOwners(chunk)) {
+                found.put(owner.getWalletAddress(), owner.getId());
+            }
+            for (String address : chunk) {
+                Long userId = found.get(address);
+                ownerCache.put(address, Optional.ofNullable(userId));
+                if (userId != null) {
+                    result.put(address, userId);
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.userservice.service.serviceInterfaces;
+
+import org.example.userservice.dto.responses.PresignedUploadDTO;
+
+import java.util.Optional;
+
+/**
+ * Storage that clients can upload to directly, without the bytes passing
+ * through this service.
+ */
+public interface IDirectUploadService {
+    /**
+     * Issues a time-limited URL for a single PUT of exactly the given type
+     * and length to the given file name.
+     */
+    PresignedUploadDTO createUploadUrl(String fileName, String contentType, long contentLength);
+
+    Optional<StoredObject> findObject(String fileName);
+
+    /**
+     * Reads at most the first {@code maxBytes} bytes of an uploaded object,
+     * enough to check what it really contains.
+     *
+     * @throws IllegalArgumentException if the object does not exist
+     */
+    byte[] readObjectHead(String fileName, int maxBytes);
+
+    record StoredObject(String url, String contentType, long contentLength) {
+    }
+}
@@ -2,9 +2,38 @@ package org.example.userservice.service.serviceInterfaces;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 public interface IStorageService {
     String storeFile(MultipartFile file);
     String storeFile(MultipartFile file, String fileName);
-    void deleteFile(String url);
+
+    /**
+     * Stores a stream of known length without buffering it first. The future
+     * completes with the file URL; the stream is closed once it has been read.
+     */
+    CompletableFuture<String> storeFileAsync(InputStream content, long contentLength, String contentType, String fileName);
+
+    /**
+     * Stores content whose file name is derived from the bytes themselves.
+     * An existing file of that name is reused instead of rewritten, and the
+     * file is marked as cacheable forever.
+     */
+    CompletableFuture<String> storeImmutableFileAsync(byte[] content, String contentType, String fileName);
+
+    /**
+     * The URL a file of the given name is stored under, whether or not it
+     * exists yet.
+     */
+    String urlFor(String fileName);
+
+    /**
+     * Deletes the given files, treating missing ones as deleted, and returns
+     * the error message for each URL that could not be deleted.
+     */
+    Map<String, String> deleteFiles(Collection<String> urls);
 }
 
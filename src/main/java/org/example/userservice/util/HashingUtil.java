@@ -26,6 +26,14 @@ public class HashingUtil {
         return encoder.matches(plainText, hashedText);
     }
 
+    /**
+     * Lowercase hex SHA-256 of the given bytes, used to name stored files by
+     * their content.
+     */
+    public static String hashContent(byte[] content) {
+        return Hashing.sha256().hashBytes(content).toString();
+    }
+
     public static String hashToken(String token) {
         return Hashing.sha256()
                 .hashString(token, StandardCharsets.UTF_8)
@@ -0,0 +1,147 @@
+package org.example.userservice.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Sorted set backed by a treap whose nodes carry subtree sizes, so that
+ * insertion, removal and rank lookups all run in expected O(log n) and the
+ * first k keys are returned in O(log n + k). Not thread-safe.
+ */
+public class OrderStatisticTree<K> {
+    private final Comparator<? super K> comparator;
+    private final SplittableRandom random = new SplittableRandom();
+    private Node<K> root;
+
+    public OrderStatisticTree(Comparator<? super K> comparator) {
+        this.comparator = comparator;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public void clear() {
+        root = null;
+    }
+
+    public boolean contains(K key) {
+        return rank(key) >= 0;
+    }
+
+    public boolean add(K key) {
+        if (contains(key)) {
+            return false;
+        }
+        Node<K>[] parts = split(root, key, false);
+        root = merge(merge(parts[0], new Node<>(key, random.nextInt())), parts[1]);
+        return true;
+    }
+
+    public boolean remove(K key) {
+        Node<K>[] lowerAndRest = split(root, key, false);
+        Node<K>[] matchAndUpper = split(lowerAndRest[1], key, true);
+        root = merge(lowerAndRest[0], matchAndUpper[1]);
+        return matchAndUpper[0] != null;
+    }
+
+    /**
+     * Zero-based position of the key in ascending order, or -1 when absent.
+     */
+    public int rank(K key) {
+        int rank = 0;
+        Node<K> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(key, node.key);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left);
+            }
+        }
+        return -1;
+    }
+
+    public List<K> first(int limit) {
+        List<K> result = new ArrayList<>(Math.min(limit, size()));
+        Deque<Node<K>> stack = new ArrayDeque<>();
+        Node<K> node = root;
+        while ((node != null || !stack.isEmpty()) && result.size() < limit) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+            node = stack.pop();
+            result.add(node.key);
+            node = node.right;
+        }
+        return result;
+    }
+
+    /**
+     * Splits into keys below {@code key} and the rest; with {@code inclusive}
+     * the left part also takes keys equal to {@code key}.
+     */
+    @SuppressWarnings("unchecked")
+    private Node<K>[] split(Node<K> node, K key, boolean inclusive) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        int cmp = comparator.compare(node.key, key);
+        if (cmp < 0 || (inclusive && cmp == 0)) {
+            Node<K>[] parts = split(node.right, key, inclusive);
+            node.right = parts[0];
+            update(node);
+            return new Node[]{node, parts[1]};
+        }
+        Node<K>[] parts = split(node.left, key, inclusive);
+        node.left = parts[1];
+        update(node);
+        return new Node[]{parts[0], node};
+    }
+
+    private Node<K> merge(Node<K> left, Node<K> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(Node<?> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static final class Node<K> {
+        private final K key;
+        private final int priority;
+        private int size = 1;
+        private Node<K> left;
+        private Node<K> right;
+
+        private Node(K key, int priority) {
+            this.key = key;
+            this.priority = priority;
+        }
+    }
+}
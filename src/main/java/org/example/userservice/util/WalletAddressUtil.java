@@ -0,0 +1,34 @@
+package org.example.userservice.util;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public final class WalletAddressUtil {
+    private static final Pattern ETHEREUM_ADDRESS = Pattern.compile("^0x[a-fA-F0-9]{40}$");
+
+    private WalletAddressUtil() {
+    }
+
+    public static boolean isValid(String address) {
+        return address != null && ETHEREUM_ADDRESS.matcher(address).matches();
+    }
+
+    /**
+     * Canonical stored form of a wallet address: trimmed and lowercased, or
+     * null for a blank value.
+     */
+    public static String normalize(String address) {
+        if (address == null) {
+            return null;
+        }
+        String trimmed = address.trim();
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+        if (!isValid(trimmed)) {
+            throw new IllegalArgumentException(
+                    "Wallet address must be a valid Ethereum address (0x followed by 40 hex characters)");
+        }
+        return trimmed.toLowerCase(Locale.ROOT);
+    }
+}
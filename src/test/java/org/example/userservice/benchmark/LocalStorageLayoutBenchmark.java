@@ -0,0 +1,114 @@
+package org.example.userservice.benchmark;
+
+import org.example.userservice.service.LocalFileLayout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Store and lookup cost of the flat picture directory against the sharded
+ * layout once the folder already holds a million files. Setup creates the
+ * files, which takes a few minutes and needs a million free inodes. Run
+ * with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.example.userservice.benchmark.LocalStorageLayoutBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocalStorageLayoutBenchmark {
+
+    @Param({"flat", "sharded"})
+    private String layout;
+
+    @Param({"1000000"})
+    private int fileCount;
+
+    private final AtomicLong nextFile = new AtomicLong();
+    private final byte[] content = new byte[4096];
+    private Path uploadDir;
+    private LocalFileLayout fileLayout;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        uploadDir = Files.createTempDirectory("layout-benchmark");
+        fileLayout = new LocalFileLayout(uploadDir.toString(), "profile-pictures");
+        Files.createDirectories(fileLayout.root());
+        Set<Path> directories = new HashSet<>();
+        for (int i = 0; i < fileCount; i++) {
+            Path file = pathOf(fileName(i));
+            if (directories.add(file.getParent())) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.createFile(file);
+        }
+        nextFile.set(fileCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(uploadDir);
+    }
+
+    @Benchmark
+    public Object store() throws IOException {
+        String fileName = fileName(nextFile.getAndIncrement());
+        if ("sharded".equals(layout)) {
+            return fileLayout.write(fileName, new ByteArrayInputStream(content));
+        }
+        // What LocalStorageService did before the sharded layout
+        if (!Files.exists(fileLayout.root())) {
+            Files.createDirectories(fileLayout.root());
+        }
+        return Files.copy(new ByteArrayInputStream(content), fileLayout.legacyPathOf(fileName),
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Benchmark
+    public BasicFileAttributes lookup() throws IOException {
+        String fileName = fileName(ThreadLocalRandom.current().nextInt(fileCount));
+        return Files.readAttributes(pathOf(fileName), BasicFileAttributes.class);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LocalStorageLayoutBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private Path pathOf(String fileName) {
+        return "sharded".equals(layout) ? fileLayout.pathOf(fileName) : fileLayout.legacyPathOf(fileName);
+    }
+
+    private static String fileName(long i) {
+        return String.format("%064x.jpg", i * 0x9E3779B97F4A7C15L);
+    }
+}
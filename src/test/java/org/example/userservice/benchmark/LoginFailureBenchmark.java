@@ -0,0 +1,104 @@
+package org.example.userservice.benchmark;
+
+import org.example.userservice.exception.GlobalExceptionHandler;
+import org.example.userservice.exception.userException.UserNotFoundException;
+import org.example.userservice.util.ErrorResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a login with an unknown email, from the throw in the
+ * service to the error body, with the exception thrown below a call stack
+ * as deep as a servlet request's. {@code traced} reproduces the previous
+ * path: an exception that fills in its stack trace and a path cut out of
+ * the request description. Run with {@code mvn test-compile exec:java
+ * -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.example.userservice.benchmark.LoginFailureBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginFailureBenchmark {
+
+    @Param({"150"})
+    private int stackDepth;
+
+    private GlobalExceptionHandler exceptionHandler;
+    private ServletWebRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        exceptionHandler = new GlobalExceptionHandler();
+        request = new ServletWebRequest(new MockHttpServletRequest("POST", "/api/v1/auth/login"));
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> traced() {
+        try {
+            return fail(stackDepth, true);
+        } catch (TracedUserNotFoundException e) {
+            ErrorResponse error = new ErrorResponse(
+                    LocalDateTime.now(),
+                    HttpStatus.NOT_FOUND.value(),
+                    "User Not Found",
+                    e.getMessage(),
+                    request.getDescription(false).replace("uri=", ""));
+            return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> stackless() {
+        try {
+            return fail(stackDepth, false);
+        } catch (UserNotFoundException e) {
+            return exceptionHandler.handleUserNotFound(e, request);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LoginFailureBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private static ResponseEntity<ErrorResponse> fail(int depth, boolean traced) {
+        if (depth > 0) {
+            return fail(depth - 1, traced);
+        }
+        throw traced ? new TracedUserNotFoundException("User Not Found!") : new UserNotFoundException("User Not Found!");
+    }
+
+    /**
+     * {@link UserNotFoundException} as it was before it became a
+     * {@link org.example.userservice.exception.BusinessException}.
+     */
+    private static final class TracedUserNotFoundException extends RuntimeException {
+        TracedUserNotFoundException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.userservice.benchmark;
+
+import org.example.userservice.config.Jackson2CborMessageConverter;
+import org.example.userservice.dto.requests.AccountVerificationEmailPayload;
+import org.example.userservice.dto.requests.NotificationRequestDTO;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization cost of a notification in JSON and CBOR. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.example.userservice.benchmark.NotificationSerializationBenchmark};
+ * the bytes per message are printed before the JMH run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationSerializationBenchmark {
+
+    @Param({"json", "cbor"})
+    private String format;
+
+    private MessageConverter converter;
+    private NotificationRequestDTO notification;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        converter = converterFor(format);
+        notification = sampleNotification();
+    }
+
+    @Benchmark
+    public Message serialize() {
+        return converter.toMessage(notification, new MessageProperties());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        NotificationRequestDTO notification = sampleNotification();
+        for (String format : new String[]{"json", "cbor"}) {
+            Message message = converterFor(format).toMessage(notification, new MessageProperties());
+            System.out.printf("%s: %d bytes per message%n", format, message.getBody().length);
+        }
+        new Runner(new OptionsBuilder()
+                .include(NotificationSerializationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private static MessageConverter converterFor(String format) {
+        return "cbor".equals(format) ? new Jackson2CborMessageConverter() : new Jackson2JsonMessageConverter();
+    }
+
+    private static NotificationRequestDTO sampleNotification() {
+        return NotificationRequestDTO.of(123456L, new AccountVerificationEmailPayload(
+                "483920",
+                LocalDateTime.of(2025, 1, 15, 10, 30),
+                "Jane Doe",
+                "jane.doe@example.com"));
+    }
+}
@@ -0,0 +1,153 @@
+package org.example.userservice.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.userservice.controller.ProfilePictureController;
+import org.example.userservice.service.LocalFileLayout;
+import org.example.userservice.service.ProfileImageCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of serving a stored picture through the dedicated
+ * controller, with and without the hot-image cache, and through the
+ * generic resource handler it replaced, for a full download and a
+ * revalidation. Mock responses have no sendfile
+ * support, so this measures the handler overhead and the copy path; the
+ * sendfile gain shows up only against a running server. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.example.userservice.benchmark.ProfilePictureServingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProfilePictureServingBenchmark {
+    private static final String FILE_NAME = "picture.jpg";
+
+    @Param({"16384", "262144"})
+    private int fileSize;
+
+    private Path uploadDir;
+    private ProfilePictureController controller;
+    private ProfilePictureController cachingController;
+    private ResourceHttpRequestHandler resourceHandler;
+    private String etag;
+    private long lastModified;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        uploadDir = Files.createTempDirectory("serving-benchmark");
+        Path folder = Files.createDirectories(uploadDir.resolve("profile-pictures"));
+        byte[] content = new byte[fileSize];
+        new Random(42).nextBytes(content);
+        Files.write(folder.resolve(FILE_NAME), content);
+        LocalFileLayout fileLayout = new LocalFileLayout(uploadDir.toString(), "profile-pictures");
+        fileLayout.write(FILE_NAME, new ByteArrayInputStream(content));
+
+        controller = new ProfilePictureController(imageCache(0), fileLayout, 49152);
+        cachingController = new ProfilePictureController(imageCache(fileSize), fileLayout, 49152);
+        resourceHandler = new ResourceHttpRequestHandler();
+        resourceHandler.setServletContext(new MockServletContext());
+        resourceHandler.setLocations(List.of(new FileSystemResource(folder.toString() + "/")));
+        resourceHandler.setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable());
+        resourceHandler.afterPropertiesSet();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.getProfilePicture(FILE_NAME, new MockHttpServletRequest("GET", "/profile-pictures/" + FILE_NAME), response);
+        etag = response.getHeader("ETag");
+        lastModified = Files.getLastModifiedTime(folder.resolve(FILE_NAME)).toMillis();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        FileSystemUtils.deleteRecursively(uploadDir);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse controllerFull() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.getProfilePicture(FILE_NAME, request(null), response);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse controllerNotModified() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.getProfilePicture(FILE_NAME, request(etag), response);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse cachingControllerFull() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        cachingController.getProfilePicture(FILE_NAME, request(null), response);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse resourceHandlerFull() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        resourceHandler.handleRequest(request(null), response);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse resourceHandlerNotModified() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockHttpServletRequest request = request(null);
+        request.addHeader("If-Modified-Since", lastModified);
+        resourceHandler.handleRequest(request, response);
+        return response;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProfilePictureServingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private static ProfileImageCache imageCache(long maxEntryBytes) {
+        return new ProfileImageCache(new SimpleMeterRegistry(), 64L * 1024 * 1024, maxEntryBytes, 3600, true);
+    }
+
+    private static MockHttpServletRequest request(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/profile-pictures/" + FILE_NAME);
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, FILE_NAME);
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return request;
+    }
+}
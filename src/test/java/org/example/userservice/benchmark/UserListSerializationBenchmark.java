@@ -0,0 +1,114 @@
+package org.example.userservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.example.userservice.dto.responses.AdminUserResponseDTO;
+import org.example.userservice.enums.UserRoleEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Throughput of writing a large admin user list with the reflective bean
+ * serializers against the generated ones, with and without the gzip step
+ * the server applies to large responses. Run with {@code mvn
+ * test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.example.userservice.benchmark.UserListSerializationBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserListSerializationBenchmark {
+
+    @Param({"reflective", "blackbird"})
+    private String serializer;
+
+    @Param({"1000"})
+    private int userCount;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+    private ObjectWriter writer;
+    private List<AdminUserResponseDTO> users;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Matches the ObjectMapper Spring Boot builds for the web layer
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if ("blackbird".equals(serializer)) {
+            objectMapper.registerModule(new BlackbirdModule());
+        }
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, AdminUserResponseDTO.class));
+
+        users = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            users.add(AdminUserResponseDTO.builder()
+                    .id((long) i)
+                    .firstName("First" + i)
+                    .lastName("Last" + i)
+                    .email("user" + i + "@example.com")
+                    .profilePicture("/profile-pictures/" + Integer.toHexString(i * 31) + ".jpg")
+                    .profilePictureThumb("/profile-pictures/" + Integer.toHexString(i * 37) + ".jpg")
+                    .profilePictureMedium("/profile-pictures/" + Integer.toHexString(i * 41) + ".jpg")
+                    .birthday(LocalDate.of(1970 + i % 40, 1 + i % 12, 1 + i % 28))
+                    .phoneNumber(380_000_000_000L + i)
+                    .walletAddress(String.format("0x%040x", i))
+                    .roles(i % 10 == 0 ? Set.of(UserRoleEnum.values()) : Set.of(UserRoleEnum.values()[0]))
+                    .enabled(i % 7 != 0)
+                    .score(i % 100)
+                    .rating(i % 50 / 10.0)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public int serialize() throws IOException {
+        out.reset();
+        writer.writeValue(out, users);
+        return out.size();
+    }
+
+    @Benchmark
+    public int serializeGzip() throws IOException {
+        out.reset();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192)) {
+            writer.writeValue(gzip, users);
+        }
+        return out.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UserListSerializationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.userservice.security;
+
+import org.example.userservice.enums.UserRoleEnum;
+import org.example.userservice.exception.authException.AccessDeniedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GatewayAuthorizationInterceptorTest {
+    private final GatewayAuthorizationInterceptor interceptor = new GatewayAuthorizationInterceptor();
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void letsCallersWithTheRoleThrough() throws Exception {
+        MockHttpServletRequest request = request("7", "[\"ROLE_ADMIN\"]");
+
+        assertTrue(interceptor.preHandle(request, response, handler("adminOnly")));
+        GatewayPrincipal principal = (GatewayPrincipal) request.getAttribute(GatewayAuthorizationInterceptor.PRINCIPAL_ATTRIBUTE);
+        assertEquals(7L, principal.userId());
+    }
+
+    @Test
+    void refusesCallersWithoutTheRole() throws Exception {
+        assertThrows(AccessDeniedException.class,
+                () -> interceptor.preHandle(request("7", "HOST,TENANT"), response, handler("adminOnly")));
+        assertThrows(AccessDeniedException.class,
+                () -> interceptor.preHandle(request("7", null), response, handler("adminOnly")));
+    }
+
+    @Test
+    void letsUsersReachTheirOwnResource() throws Exception {
+        MockHttpServletRequest request = request("7", "TENANT");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("id", "7"));
+
+        assertTrue(interceptor.preHandle(request, response, handler("adminOrSelf", Long.class)));
+    }
+
+    @Test
+    void refusesOtherUsersResources() throws Exception {
+        MockHttpServletRequest request = request("7", "TENANT");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("id", "8"));
+
+        assertThrows(AccessDeniedException.class,
+                () -> interceptor.preHandle(request, response, handler("adminOrSelf", Long.class)));
+    }
+
+    @Test
+    void letsAdminsReachAnyUsersResource() throws Exception {
+        MockHttpServletRequest request = request("7", "ADMIN");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("id", "8"));
+
+        assertTrue(interceptor.preHandle(request, response, handler("adminOrSelf", Long.class)));
+    }
+
+    @Test
+    void callerWithoutIdIsNeverSelf() throws Exception {
+        MockHttpServletRequest request = request(null, "TENANT");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("id", "7"));
+
+        assertThrows(AccessDeniedException.class,
+                () -> interceptor.preHandle(request, response, handler("adminOrSelf", Long.class)));
+    }
+
+    @Test
+    void resolvesPrincipalWithoutIdForOpenHandlers() throws Exception {
+        MockHttpServletRequest request = request(null, null);
+
+        assertTrue(interceptor.preHandle(request, response, handler("readsPrincipal", GatewayPrincipal.class)));
+        GatewayPrincipal principal = (GatewayPrincipal) request.getAttribute(GatewayAuthorizationInterceptor.PRINCIPAL_ATTRIBUTE);
+        assertNull(principal.userId());
+        assertEquals(0, principal.roles());
+    }
+
+    @Test
+    void skipsHeadersForHandlersThatDoNotNeedThem() throws Exception {
+        // A malformed header does not matter to a handler that never looks at the caller
+        MockHttpServletRequest request = request("abc", "ADMIN;HOST");
+
+        assertTrue(interceptor.preHandle(request, response, handler("open")));
+        assertNull(request.getAttribute(GatewayAuthorizationInterceptor.PRINCIPAL_ATTRIBUTE));
+    }
+
+    private static MockHttpServletRequest request(String userId, String roles) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (userId != null) {
+            request.addHeader(GatewayAuthorizationInterceptor.USER_ID_HEADER, userId);
+        }
+        if (roles != null) {
+            request.addHeader(GatewayAuthorizationInterceptor.ROLES_HEADER, roles);
+        }
+        return request;
+    }
+
+    private static HandlerMethod handler(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+        return new HandlerMethod(new Handlers(), Handlers.class.getMethod(name, parameterTypes));
+    }
+
+    public static class Handlers {
+
+        @RequiresRole(UserRoleEnum.ADMIN)
+        public void adminOnly() {
+        }
+
+        @RequiresRole(value = UserRoleEnum.ADMIN, orSelf = "id")
+        public void adminOrSelf(Long id) {
+        }
+
+        public void readsPrincipal(GatewayPrincipal principal) {
+        }
+
+        public void open() {
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.userservice.security;
+
+import org.example.userservice.enums.UserRoleEnum;
+import org.example.userservice.exception.authException.MalformedGatewayHeaderException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GatewayPrincipalTest {
+    private static final int ADMIN_AND_HOST = GatewayPrincipal.mask(UserRoleEnum.ADMIN, UserRoleEnum.HOST);
+
+    @Test
+    void parsesJoinedRoles() {
+        assertEquals(ADMIN_AND_HOST, GatewayPrincipal.fromHeaders("7", "ADMIN,HOST").roles());
+        assertEquals(ADMIN_AND_HOST, GatewayPrincipal.fromHeaders("7", "ADMIN, HOST").roles());
+        assertEquals(ADMIN_AND_HOST, GatewayPrincipal.fromHeaders("7", "admin host").roles());
+    }
+
+    @Test
+    void parsesPrefixedRoles() {
+        assertEquals(ADMIN_AND_HOST, GatewayPrincipal.fromHeaders("7", "ROLE_ADMIN,ROLE_HOST").roles());
+    }
+
+    @Test
+    void parsesJsonArrays() {
+        assertEquals(ADMIN_AND_HOST, GatewayPrincipal.fromHeaders("7", "[\"ADMIN\",\"HOST\"]").roles());
+        assertEquals(ADMIN_AND_HOST, GatewayPrincipal.fromHeaders("7", "[\"ROLE_ADMIN\", \"ROLE_HOST\"]").roles());
+        assertEquals(ADMIN_AND_HOST, GatewayPrincipal.fromHeaders("7", "[ADMIN, HOST]").roles());
+        assertEquals(0, GatewayPrincipal.fromHeaders("7", "[]").roles());
+    }
+
+    @Test
+    void ignoresUnknownRoles() {
+        GatewayPrincipal principal = GatewayPrincipal.fromHeaders("7", "ROLE_AUDITOR,TENANT");
+
+        assertEquals(GatewayPrincipal.mask(UserRoleEnum.TENANT), principal.roles());
+    }
+
+    @Test
+    void rejectsRolesThatAreNotNames() {
+        assertThrows(MalformedGatewayHeaderException.class, () -> GatewayPrincipal.fromHeaders("7", "ADMIN;HOST"));
+        assertThrows(MalformedGatewayHeaderException.class, () -> GatewayPrincipal.fromHeaders("7", "{\"role\":1}"));
+    }
+
+    @Test
+    void missingHeadersGiveNoIdAndNoRoles() {
+        GatewayPrincipal principal = GatewayPrincipal.fromHeaders(null, null);
+
+        assertNull(principal.userId());
+        assertEquals(0, principal.roles());
+        assertNull(GatewayPrincipal.fromHeaders(" ", "ADMIN").userId());
+    }
+
+    @Test
+    void rejectsInvalidUserIds() {
+        assertThrows(MalformedGatewayHeaderException.class, () -> GatewayPrincipal.fromHeaders("abc", null));
+        assertThrows(MalformedGatewayHeaderException.class, () -> GatewayPrincipal.fromHeaders("0", null));
+        assertThrows(MalformedGatewayHeaderException.class, () -> GatewayPrincipal.fromHeaders("-5", null));
+    }
+
+    @Test
+    void checksRolesAgainstMasks() {
+        GatewayPrincipal principal = GatewayPrincipal.fromHeaders("7", "HOST");
+
+        assertEquals(7L, principal.userId());
+        assertTrue(principal.hasRole(UserRoleEnum.HOST));
+        assertFalse(principal.hasRole(UserRoleEnum.ADMIN));
+        assertTrue(principal.hasAnyRole(ADMIN_AND_HOST));
+        assertFalse(principal.hasAnyRole(GatewayPrincipal.mask(UserRoleEnum.ADMIN)));
+    }
+}
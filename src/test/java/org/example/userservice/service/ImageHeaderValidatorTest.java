@@ -0,0 +1,206 @@
+package org.example.userservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.userservice.enums.ImageFormatEnum;
+import org.example.userservice.service.ImageHeaderValidator.ImageHeader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageHeaderValidatorTest {
+    private SimpleMeterRegistry meterRegistry;
+    private ImageHeaderValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        validator = new ImageHeaderValidator(meterRegistry);
+        ReflectionTestUtils.setField(validator, "maxPixels", 40_000_000L);
+    }
+
+    @Test
+    void readsJpegSizeFromStartOfFrameAfterOtherSegments() throws IOException {
+        byte[] jpeg = jpeg(640, 480, segment(0xE0, new byte[14]), segment(0xC4, new byte[30]));
+        InputStream content = new ByteArrayInputStream(jpeg);
+
+        assertEquals(new ImageHeader(ImageFormatEnum.JPEG, 640, 480), validator.validate(content));
+        // Rewound, so the decoder sees the whole file
+        assertEquals(0xFF, content.read());
+        assertEquals(0xD8, content.read());
+        assertEquals(1.0, meterRegistry.counter("image.validation", "format", "jpeg", "outcome", "accepted").count());
+    }
+
+    @Test
+    void readsJpegSizeFromProgressiveFrame() {
+        byte[] jpeg = concat(new byte[]{(byte) 0xFF, (byte) 0xD8}, startOfFrame(0xC2, 33, 17));
+
+        assertEquals(new ImageHeader(ImageFormatEnum.JPEG, 33, 17), validator.validate(new ByteArrayInputStream(jpeg)));
+    }
+
+    @Test
+    void readsPngSizeFromIhdr() throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(3, 2, BufferedImage.TYPE_INT_ARGB), "png", png);
+
+        assertEquals(new ImageHeader(ImageFormatEnum.PNG, 3, 2),
+                validator.validate(new ByteArrayInputStream(png.toByteArray())));
+    }
+
+    @Test
+    void readsLossyWebpSize() throws IOException {
+        byte[] payload = {0, 0, 0, (byte) 0x9D, 0x01, 0x2A, (byte) 0x90, 0x01, (byte) 0xC8, 0x00};
+
+        assertEquals(new ImageHeader(ImageFormatEnum.WEBP, 400, 200), validator.readHeader(webp("VP8 ", payload)));
+    }
+
+    @Test
+    void readsLosslessWebpSize() throws IOException {
+        // Width - 1 in the low 14 bits, height - 1 in the next 14
+        int bits = (400 - 1) | ((200 - 1) << 14);
+        byte[] payload = {0x2F, (byte) bits, (byte) (bits >> 8), (byte) (bits >> 16), (byte) (bits >> 24)};
+
+        assertEquals(new ImageHeader(ImageFormatEnum.WEBP, 400, 200), validator.readHeader(webp("VP8L", payload)));
+    }
+
+    @Test
+    void readsExtendedWebpSize() throws IOException {
+        byte[] payload = {0x10, 0, 0, 0, (byte) 0x8F, 0x01, 0x00, (byte) 0xC7, 0x00, 0x00};
+
+        assertEquals(new ImageHeader(ImageFormatEnum.WEBP, 400, 200), validator.readHeader(webp("VP8X", payload)));
+    }
+
+    @Test
+    void rejectsWebpAfterIdentifyingIt() throws IOException {
+        byte[] payload = {0x10, 0, 0, 0, 0, 0, 0, 0, 0, 0};
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> validator.validate(webp("VP8X", payload)));
+        assertEquals("Only JPEG and PNG images are supported", e.getMessage());
+        assertEquals(1.0, meterRegistry.counter("image.validation", "format", "webp", "outcome", "rejected").count());
+    }
+
+    @Test
+    void rejectsCorruptLossyWebp() {
+        byte[] payload = {0, 0, 0, 0x12, 0x34, 0x56, 0, 0, 0, 0};
+
+        assertThrows(IllegalArgumentException.class, () -> validator.readHeader(webp("VP8 ", payload)));
+    }
+
+    @Test
+    void rejectsTruncatedJpegSegment() {
+        byte[] jpeg = Arrays.copyOf(jpeg(640, 480, segment(0xE1, new byte[100])), 50);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> validator.validate(new ByteArrayInputStream(jpeg)));
+        assertInstanceOf(EOFException.class, e.getCause());
+    }
+
+    @Test
+    void rejectsTruncatedJpegFrameHeader() {
+        byte[] jpeg = jpeg(640, 480);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> validator.validate(new ByteArrayInputStream(Arrays.copyOf(jpeg, jpeg.length - 6))));
+    }
+
+    @Test
+    void rejectsTruncatedPngHeader() throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(3, 2, BufferedImage.TYPE_INT_RGB), "png", png);
+        byte[] truncated = Arrays.copyOf(png.toByteArray(), 20);
+
+        assertThrows(IllegalArgumentException.class, () -> validator.validate(new ByteArrayInputStream(truncated)));
+    }
+
+    @Test
+    void rejectsJpegWithoutFrameHeader() {
+        byte[] jpeg = concat(new byte[]{(byte) 0xFF, (byte) 0xD8}, segment(0xE0, new byte[14]),
+                new byte[]{(byte) 0xFF, (byte) 0xD9});
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> validator.validate(new ByteArrayInputStream(jpeg)));
+        assertEquals("JPEG image has no frame header", e.getMessage());
+    }
+
+    @Test
+    void rejectsHeaderLongerThanMarkLimit() {
+        byte[][] segments = new byte[5][];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = segment(0xE1, new byte[0xFFFF - 2]);
+        }
+        byte[] jpeg = jpeg(640, 480, segments);
+        assertTrue(jpeg.length > ImageHeaderValidator.MAX_HEADER_BYTES);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> validator.validate(new BufferedInputStream(new ByteArrayInputStream(jpeg))));
+        assertTrue(e.getMessage().startsWith("Image header is larger than"));
+    }
+
+    @Test
+    void enforcesPixelLimit() {
+        ReflectionTestUtils.setField(validator, "maxPixels", 1000L);
+
+        assertEquals(new ImageHeader(ImageFormatEnum.JPEG, 100, 10),
+                validator.validate(new ByteArrayInputStream(jpeg(100, 10))));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> validator.validate(new ByteArrayInputStream(jpeg(100, 11))));
+        assertEquals("Image exceeds the maximum of 1000 pixels", e.getMessage());
+    }
+
+    @Test
+    void rejectsEmptyDimensions() {
+        assertThrows(IllegalArgumentException.class, () -> validator.validate(new ByteArrayInputStream(jpeg(0, 480))));
+    }
+
+    @Test
+    void rejectsUnknownFormat() {
+        byte[] gif = "GIF89a".getBytes();
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> validator.validate(new ByteArrayInputStream(gif)));
+        assertEquals("File is not a JPEG or PNG image", e.getMessage());
+    }
+
+    private static byte[] jpeg(int width, int height, byte[]... segments) {
+        return concat(new byte[]{(byte) 0xFF, (byte) 0xD8}, concat(segments), startOfFrame(0xC0, width, height));
+    }
+
+    private static byte[] startOfFrame(int marker, int width, int height) {
+        return segment(marker, new byte[]{8, (byte) (height >> 8), (byte) height, (byte) (width >> 8), (byte) width,
+                1, 1, 0x11, 0});
+    }
+
+    private static byte[] segment(int marker, byte[] payload) {
+        int length = payload.length + 2;
+        return concat(new byte[]{(byte) 0xFF, (byte) marker, (byte) (length >> 8), (byte) length}, payload);
+    }
+
+    private static InputStream webp(String chunk, byte[] payload) {
+        byte[] riff = concat("RIFF".getBytes(), new byte[4], "WEBP".getBytes(), chunk.getBytes(),
+                new byte[]{(byte) payload.length, 0, 0, 0}, payload);
+        return new ByteArrayInputStream(riff);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
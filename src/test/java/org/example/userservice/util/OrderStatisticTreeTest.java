@@ -0,0 +1,51 @@
+package org.example.userservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderStatisticTreeTest {
+
+    @Test
+    void ranksAndPrefixesMatchSortedOrder() {
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.reverseOrder());
+        TreeSet<Integer> expected = new TreeSet<>(Comparator.reverseOrder());
+        Random random = new Random(42);
+
+        for (int i = 0; i < 5_000; i++) {
+            int value = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), tree.remove(value));
+            } else {
+                assertEquals(expected.add(value), tree.add(value));
+            }
+        }
+
+        List<Integer> sorted = new ArrayList<>(expected);
+        assertEquals(sorted.size(), tree.size());
+        assertEquals(sorted.subList(0, 25), tree.first(25));
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(i, tree.rank(sorted.get(i)));
+        }
+    }
+
+    @Test
+    void rejectsDuplicatesAndReportsMissingKeys() {
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.naturalOrder());
+
+        assertTrue(tree.add(3));
+        assertFalse(tree.add(3));
+        assertEquals(-1, tree.rank(7));
+        assertFalse(tree.remove(7));
+        assertEquals(Collections.singletonList(3), tree.first(10));
+    }
+}